@@ -1,20 +1,37 @@
 package com.biblioteca.composite;
 
+import com.biblioteca.iterator.DocumentSpliterator;
 import com.biblioteca.model.Document;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Category that can contain documents and subcategories.
+ * Keeps the document count and an id index of its whole subtree up to date
+ * as children are added or removed, propagating changes through parent links.
+ * The index holds every leaf of the subtree under its document id, so removing
+ * a leaf costs one update per ancestor however wide the tree is.
  */
 public class DocumentCategory implements DocumentComponent {
     
     private final String categoryName;
     private final List<DocumentComponent> children;
+    // Leaves of the subtree by document id, in the order they were added
+    private final Map<String, List<DocumentLeaf>> leafIndex;
+    private DocumentCategory parent;
+    private int documentCount;
     
     public DocumentCategory(String categoryName) {
         this.categoryName = categoryName;
         this.children = new ArrayList<>();
+        this.leafIndex = new HashMap<>();
+        this.documentCount = 0;
     }
     
     @Override
@@ -24,12 +41,43 @@ public class DocumentCategory implements DocumentComponent {
     
     @Override
     public void add(DocumentComponent component) {
-        children.add(component);
+        if (component instanceof DocumentCategory) {
+            DocumentCategory category = (DocumentCategory) component;
+            for (DocumentCategory ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+                if (ancestor == category) {
+                    throw new IllegalArgumentException("Cannot add a category to its own subtree");
+                }
+            }
+            if (category.parent != null) {
+                category.parent.remove(category);
+            }
+            category.parent = this;
+            children.add(category);
+            documentsAdded(category.documentCount, category.leafIndex);
+        } else if (component instanceof DocumentLeaf) {
+            DocumentLeaf leaf = (DocumentLeaf) component;
+            children.add(leaf);
+            documentsAdded(1, leafEntry(leaf));
+        } else {
+            throw new IllegalArgumentException("Categories can only hold categories and document leaves, not "
+                                               + (component == null ? "null" : component.getClass().getName()));
+        }
     }
     
     @Override
     public void remove(DocumentComponent component) {
-        children.remove(component);
+        if (!children.remove(component)) {
+            return;
+        }
+        if (component instanceof DocumentCategory) {
+            DocumentCategory category = (DocumentCategory) component;
+            category.parent = null;
+            documentsRemoved(category.documentCount, category.leafIndex);
+        } else {
+            // add() only accepts categories and leaves, so any other child is a leaf
+            DocumentLeaf leaf = (DocumentLeaf) component;
+            documentsRemoved(1, leafEntry(leaf));
+        }
     }
     
     @Override
@@ -39,18 +87,45 @@ public class DocumentCategory implements DocumentComponent {
     
     @Override
     public List<Document> getDocuments() {
-        List<Document> allDocuments = new ArrayList<>();
+        List<Document> allDocuments = new ArrayList<>(documentCount);
+        forEachDocument(allDocuments::add);
+        return allDocuments;
+    }
+    
+    @Override
+    public void forEachDocument(Consumer<? super Document> action) {
         for (DocumentComponent child : children) {
-            allDocuments.addAll(child.getDocuments());
+            child.forEachDocument(action);
         }
-        return allDocuments;
+    }
+    
+    @Override
+    public Stream<Document> streamDocuments() {
+        return children.stream().flatMap(DocumentComponent::streamDocuments);
+    }
+    
+    /**
+     * The subtree's documents are flattened depth-first into one array that is
+     * split evenly across threads, however deep or unbalanced the tree is.
+     */
+    @Override
+    public Stream<Document> parallelStreamDocuments() {
+        Document[] documents = new Document[documentCount];
+        int[] size = new int[1];
+        forEachDocument(document -> documents[size[0]++] = document);
+        return StreamSupport.stream(new DocumentSpliterator(documents), true);
+    }
+    
+    @Override
+    public int getDocumentCount() {
+        return documentCount;
     }
     
     @Override
     public void display(int depth) {
         String indent = "  ".repeat(depth);
         System.out.println(indent + "+ " + categoryName + 
-                          " (" + getDocuments().size() + " documents)");
+                          " (" + documentCount + " documents)");
         for (DocumentComponent child : children) {
             child.display(depth + 1);
         }
@@ -61,22 +136,67 @@ public class DocumentCategory implements DocumentComponent {
         return true;
     }
     
+    /**
+     * Get the category containing this one, or null for a root category
+     */
+    public DocumentCategory getParent() {
+        return parent;
+    }
+    
     /**
      * Get count of all documents in this category and subcategories
      */
     public int getTotalDocumentCount() {
-        return getDocuments().size();
+        return documentCount;
     }
     
     /**
      * Find a document by ID in this category tree
      */
     public Document findDocumentById(String id) {
-        for (Document doc : getDocuments()) {
-            if (doc.getId().equals(id)) {
-                return doc;
+        List<DocumentLeaf> leaves = leafIndex.get(id);
+        return leaves != null ? leaves.get(0).getDocument() : null;
+    }
+    
+    private void documentsAdded(int count, Map<String, List<DocumentLeaf>> leaves) {
+        for (DocumentCategory category = this; category != null; category = category.parent) {
+            category.documentCount += count;
+            for (Map.Entry<String, List<DocumentLeaf>> entry : leaves.entrySet()) {
+                category.leafIndex.computeIfAbsent(entry.getKey(), id -> new ArrayList<>(1))
+                                  .addAll(entry.getValue());
+            }
+        }
+    }
+    
+    private void documentsRemoved(int count, Map<String, List<DocumentLeaf>> leaves) {
+        for (DocumentCategory category = this; category != null; category = category.parent) {
+            category.documentCount -= count;
+            for (Map.Entry<String, List<DocumentLeaf>> entry : leaves.entrySet()) {
+                // Other leaves in the subtree may share the id and stay indexed
+                List<DocumentLeaf> indexed = category.leafIndex.get(entry.getKey());
+                for (DocumentLeaf leaf : entry.getValue()) {
+                    removeLeaf(indexed, leaf);
+                }
+                if (indexed.isEmpty()) {
+                    category.leafIndex.remove(entry.getKey());
+                }
+            }
+        }
+    }
+    
+    private static Map<String, List<DocumentLeaf>> leafEntry(DocumentLeaf leaf) {
+        return Collections.singletonMap(leaf.getDocument().getId(), Collections.singletonList(leaf));
+    }
+    
+    /**
+     * Remove a leaf by identity; lists hold more than one leaf only for duplicate ids
+     */
+    private static void removeLeaf(List<DocumentLeaf> leaves, DocumentLeaf leaf) {
+        for (int i = leaves.size() - 1; i >= 0; i--) {
+            if (leaves.get(i) == leaf) {
+                leaves.remove(i);
+                return;
             }
         }
-        return null;
     }
 }
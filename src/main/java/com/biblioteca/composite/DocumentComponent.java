@@ -2,6 +2,8 @@ package com.biblioteca.composite;
 
 import com.biblioteca.model.Document;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Component interface for Composite Pattern.
@@ -34,6 +36,35 @@ public interface DocumentComponent {
      */
     List<Document> getDocuments();
     
+    /**
+     * Visit every document in this component depth-first.
+     * Composites override this to walk their children without building lists.
+     */
+    default void forEachDocument(Consumer<? super Document> action) {
+        getDocuments().forEach(action);
+    }
+    
+    /**
+     * Depth-first stream of the documents in this component
+     */
+    default Stream<Document> streamDocuments() {
+        return getDocuments().stream();
+    }
+    
+    /**
+     * Stream of the documents in this component that traverses subtrees in parallel
+     */
+    default Stream<Document> parallelStreamDocuments() {
+        return getDocuments().parallelStream();
+    }
+    
+    /**
+     * Get the number of documents in this component
+     */
+    default int getDocumentCount() {
+        return getDocuments().size();
+    }
+    
     /**
      * Display information about this component
      */
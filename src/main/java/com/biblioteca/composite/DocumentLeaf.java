@@ -4,6 +4,8 @@ import com.biblioteca.model.Document;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Leaf class in Composite Pattern.
@@ -44,6 +46,26 @@ public class DocumentLeaf implements DocumentComponent {
         return docs;
     }
     
+    @Override
+    public void forEachDocument(Consumer<? super Document> action) {
+        action.accept(document);
+    }
+    
+    @Override
+    public Stream<Document> streamDocuments() {
+        return Stream.of(document);
+    }
+    
+    @Override
+    public Stream<Document> parallelStreamDocuments() {
+        return Stream.of(document);
+    }
+    
+    @Override
+    public int getDocumentCount() {
+        return 1;
+    }
+    
     @Override
     public void display(int depth) {
         String indent = "  ".repeat(depth);
@@ -3,6 +3,7 @@ package com.biblioteca.factory;
 import com.biblioteca.model.*;
 import com.biblioteca.exception.InvalidDocumentException;
 import com.biblioteca.util.InputValidator;
+import com.biblioteca.util.StringInterner;
 
 import java.time.LocalDate;
 
@@ -14,7 +15,11 @@ public class DocumentFactory {
     
     private static DocumentFactory instance;
     
+    // Repeated field values such as authors and genres share one instance
+    private final StringInterner interner;
+    
     private DocumentFactory() {
+        this.interner = StringInterner.getInstance();
     }
     
     public static synchronized DocumentFactory getInstance() {
@@ -87,11 +92,11 @@ public class DocumentFactory {
         return new Book(
             params.getId(),
             params.getTitle(),
-            params.getAuthor(),
+            interner.intern(params.getAuthor()),
             params.getPublicationDate(),
             isbn,
             pages,
-            genre
+            interner.intern(genre)
         );
     }
     
@@ -121,11 +126,11 @@ public class DocumentFactory {
         return new Magazine(
             params.getId(),
             params.getTitle(),
-            params.getAuthor(),
+            interner.intern(params.getAuthor()),
             params.getPublicationDate(),
             issueNumber,
-            publisher,
-            frequency
+            interner.intern(publisher),
+            interner.intern(frequency)
         );
     }
 }
@@ -0,0 +1,117 @@
+package com.biblioteca.index;
+
+import com.biblioteca.util.EditDistance;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Burkhard-Keller tree over terms under the Levenshtein metric.
+ * Children are keyed by their distance to the parent term, so by the triangle
+ * inequality a search within distance k only descends into children whose key
+ * lies within k of the query's distance to the node.
+ */
+public class BkTree {
+    
+    private Node root;
+    private int size;
+    
+    /**
+     * Add a term, returning false if it was already present
+     */
+    public boolean add(String term) {
+        if (root == null) {
+            root = new Node(term);
+            size++;
+            return true;
+        }
+        Node node = root;
+        while (true) {
+            int distance = EditDistance.levenshtein(term, node.term);
+            if (distance == 0) {
+                return false;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(term));
+                size++;
+                return true;
+            }
+            node = child;
+        }
+    }
+    
+    /**
+     * Find all terms within maxDistance of the query, mapped to their distance
+     */
+    public Map<String, Integer> search(String query, int maxDistance) {
+        Map<String, Integer> matches = new LinkedHashMap<>();
+        if (root == null) {
+            return matches;
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = EditDistance.levenshtein(query, node.term);
+            if (distance <= maxDistance) {
+                matches.put(node.term, distance);
+            }
+            int low = distance - maxDistance;
+            int high = distance + maxDistance;
+            for (int i = 0; i < node.childCount; i++) {
+                if (node.distances[i] >= low && node.distances[i] <= high) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * Number of distinct terms in the tree
+     */
+    public int size() {
+        return size;
+    }
+    
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+    
+    private static final class Node {
+        
+        private final String term;
+        private int[] distances = new int[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        
+        Node(String term) {
+            this.term = term;
+        }
+        
+        Node child(int distance) {
+            for (int i = 0; i < childCount; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+        
+        void addChild(int distance, Node child) {
+            if (childCount == distances.length) {
+                int capacity = Math.max(2, childCount * 2);
+                distances = Arrays.copyOf(distances, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            distances[childCount] = distance;
+            children[childCount] = child;
+            childCount++;
+        }
+    }
+}
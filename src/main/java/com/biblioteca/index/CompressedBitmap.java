@@ -0,0 +1,583 @@
+package com.biblioteca.index;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap over non-negative int values.
+ * Values are split into 65536-wide chunks keyed by their high 16 bits; each
+ * chunk is stored as a sorted array while sparse and as a plain bitmap once
+ * dense, so both sparse and dense sets stay small and fast to intersect.
+ */
+public class CompressedBitmap {
+    
+    // Array containers above this cardinality are converted to bitmap containers
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS_PER_CHUNK = 1024;
+    
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+    
+    public CompressedBitmap() {
+        this.keys = new char[4];
+        this.containers = new Container[4];
+        this.size = 0;
+    }
+    
+    /**
+     * Create a bitmap containing every value in [from, to)
+     */
+    public static CompressedBitmap range(int from, int to) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int value = from;
+        while (value < to) {
+            int chunkEnd = Math.min(to, ((value >>> 16) + 1) << 16);
+            Container container = chunkEnd - value > ARRAY_LIMIT
+                ? new BitmapContainer()
+                : new ArrayContainer();
+            for (int v = value; v < chunkEnd; v++) {
+                container = container.add(lowBits(v));
+            }
+            bitmap.append(highBits(value), container);
+            value = chunkEnd;
+        }
+        return bitmap;
+    }
+    
+    public void add(int value) {
+        char key = highBits(value);
+        int index = find(key);
+        if (index >= 0) {
+            containers[index] = containers[index].add(lowBits(value));
+        } else {
+            insert(-index - 1, key, new ArrayContainer().add(lowBits(value)));
+        }
+    }
+    
+    public void remove(int value) {
+        int index = find(highBits(value));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove(lowBits(value));
+        if (container.cardinality() == 0) {
+            delete(index);
+        } else {
+            containers[index] = container;
+        }
+    }
+    
+    /**
+     * Remove a value and move every larger value down by one, as when the element
+     * at that position is deleted from an array. Chunks below the value are untouched,
+     * so the cost grows with the values above it rather than with the whole bitmap.
+     */
+    public void removeAndShift(int value) {
+        int first = find(highBits(value));
+        if (first < 0) {
+            first = -first - 1;
+        }
+        if (first == size) {
+            return;
+        }
+        CompressedBitmap tail = new CompressedBitmap();
+        for (int v = nextSetBit(keys[first] << 16); v >= 0; v = nextSetBit(v + 1)) {
+            if (v != value) {
+                tail.add(v < value ? v : v - 1);
+            }
+        }
+        Arrays.fill(containers, first, size, null);
+        size = first;
+        for (int i = 0; i < tail.size; i++) {
+            append(tail.keys[i], tail.containers[i]);
+        }
+    }
+    
+    public void set(int value, boolean present) {
+        if (present) {
+            add(value);
+        } else {
+            remove(value);
+        }
+    }
+    
+    public boolean contains(int value) {
+        int index = find(highBits(value));
+        return index >= 0 && containers[index].contains(lowBits(value));
+    }
+    
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+    }
+    
+    /**
+     * Get the smallest value greater than or equal to from, or -1 if none
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        int index = find(highBits(from));
+        if (index >= 0) {
+            int low = containers[index].nextSetBit(lowBits(from));
+            if (low >= 0) {
+                return (keys[index] << 16) | low;
+            }
+            index++;
+        } else {
+            index = -index - 1;
+        }
+        if (index < size) {
+            return (keys[index] << 16) | containers[index].nextSetBit(0);
+        }
+        return -1;
+    }
+    
+    /**
+     * Intersection of this bitmap and another, as a new bitmap
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.append(keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Size of the intersection of this bitmap and another, without building it
+     */
+    public int andCardinality(CompressedBitmap other) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+    
+    /**
+     * Values of this bitmap not present in another, as a new bitmap
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container container = j < other.size && other.keys[j] == keys[i]
+                ? containers[i].andNot(other.containers[j])
+                : containers[i].copy();
+            if (container.cardinality() > 0) {
+                result.append(keys[i], container);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Union of this bitmap and another, as a new bitmap
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+    
+    public CompressedBitmap copy() {
+        CompressedBitmap result = new CompressedBitmap();
+        for (int i = 0; i < size; i++) {
+            result.append(keys[i], containers[i].copy());
+        }
+        return result;
+    }
+    
+    /**
+     * Get all values in ascending order
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int count = 0;
+        for (int value = nextSetBit(0); value >= 0; value = nextSetBit(value + 1)) {
+            values[count++] = value;
+        }
+        return values;
+    }
+    
+    private static char highBits(int value) {
+        return (char) (value >>> 16);
+    }
+    
+    private static char lowBits(int value) {
+        return (char) value;
+    }
+    
+    private int find(char key) {
+        // Appends in ascending order are the common case
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+    
+    private void append(char key, Container container) {
+        insert(size, key, container);
+    }
+    
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+    
+    private void delete(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+    
+    /**
+     * Storage for the low 16 bits of the values sharing one key
+     */
+    private abstract static class Container {
+        
+        abstract Container add(char value);
+        
+        abstract Container remove(char value);
+        
+        abstract boolean contains(char value);
+        
+        abstract int cardinality();
+        
+        abstract int nextSetBit(int from);
+        
+        abstract Container copy();
+        
+        Container and(Container other) {
+            ArrayContainer result = new ArrayContainer();
+            Container smaller = cardinality() <= other.cardinality() ? this : other;
+            Container larger = smaller == this ? other : this;
+            for (int v = smaller.nextSetBit(0); v >= 0; v = smaller.nextSetBit(v + 1)) {
+                if (larger.contains((char) v)) {
+                    result.appendSorted((char) v);
+                }
+            }
+            return result;
+        }
+        
+        int andCardinality(Container other) {
+            Container smaller = cardinality() <= other.cardinality() ? this : other;
+            Container larger = smaller == this ? other : this;
+            int count = 0;
+            for (int v = smaller.nextSetBit(0); v >= 0; v = smaller.nextSetBit(v + 1)) {
+                if (larger.contains((char) v)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        Container andNot(Container other) {
+            Container result = new ArrayContainer();
+            for (int v = nextSetBit(0); v >= 0; v = nextSetBit(v + 1)) {
+                if (!other.contains((char) v)) {
+                    result = result.add((char) v);
+                }
+            }
+            return result;
+        }
+        
+        Container or(Container other) {
+            BitmapContainer result = BitmapContainer.from(this);
+            for (int v = other.nextSetBit(0); v >= 0; v = other.nextSetBit(v + 1)) {
+                result.add((char) v);
+            }
+            return result.shrink();
+        }
+    }
+    
+    /**
+     * Sorted array of values, used while the chunk is sparse
+     */
+    private static final class ArrayContainer extends Container {
+        
+        private char[] values = new char[4];
+        private int cardinality;
+        
+        void appendSorted(char value) {
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, cardinality * 2);
+            }
+            values[cardinality++] = value;
+        }
+        
+        @Override
+        Container add(char value) {
+            if (cardinality > 0 && values[cardinality - 1] < value) {
+                if (cardinality >= ARRAY_LIMIT) {
+                    return BitmapContainer.from(this).add(value);
+                }
+                appendSorted(value);
+                return this;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality >= ARRAY_LIMIT) {
+                return BitmapContainer.from(this).add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, cardinality * 2);
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+        
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+        
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+        
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+        
+        @Override
+        int nextSetBit(int from) {
+            if (from > 0xFFFF) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < cardinality ? values[index] : -1;
+        }
+        
+        @Override
+        Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(values, Math.max(cardinality, 4));
+            copy.cardinality = cardinality;
+            return copy;
+        }
+    }
+    
+    /**
+     * Plain 65536-bit bitmap, used once the chunk is dense
+     */
+    private static final class BitmapContainer extends Container {
+        
+        private final long[] words = new long[WORDS_PER_CHUNK];
+        private int cardinality;
+        
+        static BitmapContainer from(Container container) {
+            if (container instanceof BitmapContainer) {
+                return (BitmapContainer) container.copy();
+            }
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int v = container.nextSetBit(0); v >= 0; v = container.nextSetBit(v + 1)) {
+                bitmap.add((char) v);
+            }
+            return bitmap;
+        }
+        
+        @Override
+        Container add(char value) {
+            long mask = 1L << value;
+            int word = value >>> 6;
+            if ((words[word] & mask) == 0) {
+                words[word] |= mask;
+                cardinality++;
+            }
+            return this;
+        }
+        
+        @Override
+        Container remove(char value) {
+            long mask = 1L << value;
+            int word = value >>> 6;
+            if ((words[word] & mask) != 0) {
+                words[word] &= ~mask;
+                cardinality--;
+            }
+            // Shrink with some hysteresis so alternating add/remove does not thrash
+            return cardinality <= ARRAY_LIMIT / 2 ? shrink() : this;
+        }
+        
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+        
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+        
+        @Override
+        int nextSetBit(int from) {
+            int word = from >>> 6;
+            if (word >= WORDS_PER_CHUNK) {
+                return -1;
+            }
+            long bits = words[word] & (-1L << from);
+            while (true) {
+                if (bits != 0) {
+                    return (word << 6) + Long.numberOfTrailingZeros(bits);
+                }
+                if (++word == WORDS_PER_CHUNK) {
+                    return -1;
+                }
+                bits = words[word];
+            }
+        }
+        
+        @Override
+        Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(words, 0, copy.words, 0, WORDS_PER_CHUNK);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+        
+        @Override
+        Container and(Container other) {
+            if (!(other instanceof BitmapContainer)) {
+                return super.and(other);
+            }
+            BitmapContainer result = new BitmapContainer();
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                result.words[i] = words[i] & otherWords[i];
+                count += Long.bitCount(result.words[i]);
+            }
+            result.cardinality = count;
+            return result.shrink();
+        }
+        
+        @Override
+        int andCardinality(Container other) {
+            if (!(other instanceof BitmapContainer)) {
+                return super.andCardinality(other);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                count += Long.bitCount(words[i] & otherWords[i]);
+            }
+            return count;
+        }
+        
+        @Override
+        Container andNot(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof BitmapContainer) {
+                long[] otherWords = ((BitmapContainer) other).words;
+                int count = 0;
+                for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                    result.words[i] &= ~otherWords[i];
+                    count += Long.bitCount(result.words[i]);
+                }
+                result.cardinality = count;
+            } else {
+                // Clear the bits directly: remove() would try to shrink after every value
+                for (int v = other.nextSetBit(0); v >= 0; v = other.nextSetBit(v + 1)) {
+                    result.words[v >>> 6] &= ~(1L << v);
+                }
+                int count = 0;
+                for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                    count += Long.bitCount(result.words[i]);
+                }
+                result.cardinality = count;
+            }
+            return result.shrink();
+        }
+        
+        /**
+         * Convert back to an array container once sparse enough
+         */
+        Container shrink() {
+            if (cardinality > ARRAY_LIMIT) {
+                return this;
+            }
+            ArrayContainer array = new ArrayContainer();
+            for (int v = nextSetBit(0); v >= 0; v = nextSetBit(v + 1)) {
+                array.appendSorted((char) v);
+            }
+            return array;
+        }
+    }
+}
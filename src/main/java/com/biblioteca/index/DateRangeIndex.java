@@ -0,0 +1,129 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Document;
+import com.biblioteca.util.EpochDay;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sorted index of documents by publication date.
+ * Documents are grouped by publication epoch day in a balanced tree, so range
+ * and newest-first queries cost O(log n + k) for k results.
+ * Documents without a publication date are not indexed.
+ */
+public class DateRangeIndex implements DocumentIndex {
+    
+    private final TreeMap<Long, List<Document>> byDay;
+    // Day each document was indexed under, so removal works even if its date changed
+    private final Map<Document, Long> dayOf;
+    
+    public DateRangeIndex() {
+        this.byDay = new TreeMap<>();
+        this.dayOf = new HashMap<>();
+    }
+    
+    @Override
+    public synchronized void add(Document document) {
+        int epochDay = document.getPublicationEpochDay();
+        if (epochDay == EpochDay.NONE || dayOf.containsKey(document)) {
+            return;
+        }
+        long day = epochDay;
+        dayOf.put(document, day);
+        byDay.computeIfAbsent(day, d -> new ArrayList<>()).add(document);
+    }
+    
+    @Override
+    public synchronized void remove(Document document) {
+        Long day = dayOf.remove(document);
+        if (day == null) {
+            return;
+        }
+        List<Document> documents = byDay.get(day);
+        documents.remove(document);
+        if (documents.isEmpty()) {
+            byDay.remove(day);
+        }
+    }
+    
+    @Override
+    public synchronized void clear() {
+        byDay.clear();
+        dayOf.clear();
+    }
+    
+    /**
+     * Documents published between two dates, both inclusive, oldest first.
+     * A null bound leaves that side of the range open; a reversed range is empty.
+     */
+    public synchronized List<Document> range(LocalDate from, LocalDate to) {
+        List<Document> results = new ArrayList<>();
+        if (from != null && to != null && from.isAfter(to)) {
+            return results;
+        }
+        NavigableMap<Long, List<Document>> days = byDay;
+        if (from != null) {
+            days = days.tailMap(from.toEpochDay(), true);
+        }
+        if (to != null) {
+            days = days.headMap(to.toEpochDay(), true);
+        }
+        for (List<Document> documents : days.values()) {
+            results.addAll(documents);
+        }
+        return results;
+    }
+    
+    /**
+     * Number of documents published between two dates, both inclusive,
+     * counted without listing them; null bounds and reversed ranges as in range
+     */
+    public synchronized int count(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return 0;
+        }
+        NavigableMap<Long, List<Document>> days = byDay;
+        if (from != null) {
+            days = days.tailMap(from.toEpochDay(), true);
+        }
+        if (to != null) {
+            days = days.headMap(to.toEpochDay(), true);
+        }
+        if (days == byDay) {
+            return dayOf.size();
+        }
+        int count = 0;
+        for (List<Document> documents : days.values()) {
+            count += documents.size();
+        }
+        return count;
+    }
+    
+    /**
+     * The most recently published documents, newest first
+     */
+    public synchronized List<Document> latest(int limit) {
+        List<Document> results = new ArrayList<>(Math.min(Math.max(limit, 0), dayOf.size()));
+        for (List<Document> documents : byDay.descendingMap().values()) {
+            ListIterator<Document> iterator = documents.listIterator(documents.size());
+            while (iterator.hasPrevious()) {
+                if (results.size() >= limit) {
+                    return results;
+                }
+                results.add(iterator.previous());
+            }
+        }
+        return results;
+    }
+    
+    public synchronized int size() {
+        return dayOf.size();
+    }
+}
@@ -0,0 +1,25 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Document;
+
+/**
+ * Secondary index over the documents of a collection.
+ * Collections notify registered indexes of every change so they stay current.
+ */
+public interface DocumentIndex {
+    
+    /**
+     * Index a document added to the collection
+     */
+    void add(Document document);
+    
+    /**
+     * Drop a document removed from the collection
+     */
+    void remove(Document document);
+    
+    /**
+     * Drop every indexed document
+     */
+    void clear();
+}
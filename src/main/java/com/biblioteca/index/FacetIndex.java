@@ -0,0 +1,122 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Document;
+import com.biblioteca.model.Magazine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Position bitmaps for every value of the catalogue facets.
+ * Counting the facets of a result is one bitmap intersection count per facet
+ * value, independent of how many documents the result holds.
+ * Positions are assigned by the owning collection.
+ */
+public class FacetIndex {
+    
+    public enum Facet {
+        TYPE, GENRE, PUBLISHER, DECADE
+    }
+    
+    private final Map<Facet, Map<String, CompressedBitmap>> values;
+    
+    public FacetIndex() {
+        this.values = new EnumMap<>(Facet.class);
+        for (Facet facet : Facet.values()) {
+            values.put(facet, new HashMap<>());
+        }
+    }
+    
+    /**
+     * Record the facet values of the document at a position
+     */
+    public void add(Document document, int position) {
+        for (Facet facet : Facet.values()) {
+            String value = valueOf(document, facet);
+            if (value != null) {
+                values.get(facet).computeIfAbsent(value, v -> new CompressedBitmap()).add(position);
+            }
+        }
+    }
+    
+    /**
+     * Forget the document at a position, moving every later position down by one
+     */
+    public void removeAndShift(int position) {
+        for (Map<String, CompressedBitmap> facetValues : values.values()) {
+            Iterator<CompressedBitmap> bitmaps = facetValues.values().iterator();
+            while (bitmaps.hasNext()) {
+                CompressedBitmap bitmap = bitmaps.next();
+                bitmap.removeAndShift(position);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove();
+                }
+            }
+        }
+    }
+    
+    public void clear() {
+        for (Map<String, CompressedBitmap> facetValues : values.values()) {
+            facetValues.clear();
+        }
+    }
+    
+    /**
+     * Count the documents per facet value among the given positions, or among all
+     * indexed positions if null. Values are ordered by descending count and
+     * values with no documents are left out.
+     */
+    public Map<Facet, Map<String, Integer>> count(CompressedBitmap positions) {
+        Map<Facet, Map<String, Integer>> counts = new EnumMap<>(Facet.class);
+        for (Map.Entry<Facet, Map<String, CompressedBitmap>> facet : values.entrySet()) {
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+            for (Map.Entry<String, CompressedBitmap> value : facet.getValue().entrySet()) {
+                int count = positions == null
+                    ? value.getValue().cardinality()
+                    : value.getValue().andCardinality(positions);
+                if (count > 0) {
+                    entries.add(Map.entry(value.getKey(), count));
+                }
+            }
+            entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Integer> ordered = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : entries) {
+                ordered.put(entry.getKey(), entry.getValue());
+            }
+            counts.put(facet.getKey(), Collections.unmodifiableMap(ordered));
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+    
+    /**
+     * Value of a facet for a document, or null if the facet does not apply
+     */
+    static String valueOf(Document document, Facet facet) {
+        switch (facet) {
+            case TYPE:
+                return document.getType() != null ? document.getType().name() : null;
+            case GENRE:
+                return document instanceof Book ? blankToNull(((Book) document).getGenre()) : null;
+            case PUBLISHER:
+                return document instanceof Magazine ? blankToNull(((Magazine) document).getPublisher()) : null;
+            case DECADE:
+                return document.getPublicationDate() != null
+                    ? Math.floorDiv(document.getPublicationDate().getYear(), 10) * 10 + "s"
+                    : null;
+            default:
+                return null;
+        }
+    }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+}
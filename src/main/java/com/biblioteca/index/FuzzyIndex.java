@@ -0,0 +1,125 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Document;
+import com.biblioteca.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo-tolerant index over title and author tokens.
+ * Distinct tokens live in a BK-tree so edit-distance lookups visit only a
+ * small part of the vocabulary; each token maps to the documents containing it.
+ */
+public class FuzzyIndex implements DocumentIndex {
+    
+    private final BkTree terms;
+    private final Map<String, Set<Document>> postings;
+    
+    public FuzzyIndex() {
+        this.terms = new BkTree();
+        this.postings = new HashMap<>();
+    }
+    
+    @Override
+    public synchronized void add(Document document) {
+        for (String token : tokensOf(document)) {
+            postings.computeIfAbsent(token, t -> new LinkedHashSet<>()).add(document);
+            terms.add(token);
+        }
+    }
+    
+    @Override
+    public synchronized void remove(Document document) {
+        // BK-trees cannot delete, so dead tokens stay in the tree until they outnumber live ones
+        for (String token : tokensOf(document)) {
+            Set<Document> documents = postings.get(token);
+            if (documents != null && documents.remove(document) && documents.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+        if (terms.size() - postings.size() > postings.size()) {
+            terms.clear();
+            postings.keySet().forEach(terms::add);
+        }
+    }
+    
+    @Override
+    public synchronized void clear() {
+        terms.clear();
+        postings.clear();
+    }
+    
+    /**
+     * Find documents where every query token is within the allowed edit distance
+     * of some title or author token, closest matches first
+     */
+    public synchronized List<Document> search(String query) {
+        List<String> queryTokens = TextNormalizer.tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Document, Integer> totals = null;
+        for (String queryToken : queryTokens) {
+            Map<Document, Integer> best = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> match
+                    : terms.search(queryToken, maxDistanceFor(queryToken)).entrySet()) {
+                for (Document document : postings.getOrDefault(match.getKey(), Collections.emptySet())) {
+                    best.merge(document, match.getValue(), Math::min);
+                }
+            }
+            if (totals == null) {
+                totals = best;
+            } else {
+                Map<Document, Integer> combined = new LinkedHashMap<>();
+                for (Map.Entry<Document, Integer> entry : totals.entrySet()) {
+                    Integer distance = best.get(entry.getKey());
+                    if (distance != null) {
+                        combined.put(entry.getKey(), entry.getValue() + distance);
+                    }
+                }
+                totals = combined;
+            }
+            if (totals.isEmpty()) {
+                break;
+            }
+        }
+        List<Map.Entry<Document, Integer>> ranked = new ArrayList<>(totals.entrySet());
+        ranked.sort(Map.Entry.comparingByValue());
+        List<Document> results = new ArrayList<>(ranked.size());
+        for (Map.Entry<Document, Integer> entry : ranked) {
+            results.add(entry.getKey());
+        }
+        return results;
+    }
+    
+    /**
+     * Number of tokens in the BK-tree, including dead ones not yet compacted away
+     */
+    public synchronized int termCount() {
+        return terms.size();
+    }
+    
+    /**
+     * Allowed typos grow with token length: none for very short tokens, and two
+     * from four characters on so a transposition such as "jhon" still matches
+     */
+    static int maxDistanceFor(String token) {
+        if (token.length() <= 2) {
+            return 0;
+        }
+        return token.length() == 3 ? 1 : 2;
+    }
+    
+    private static Set<String> tokensOf(Document document) {
+        Set<String> tokens = new LinkedHashSet<>(TextNormalizer.tokenize(document.getTitle()));
+        tokens.addAll(TextNormalizer.tokenize(document.getAuthor()));
+        return tokens;
+    }
+}
@@ -0,0 +1,256 @@
+package com.biblioteca.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, memory-mapped snapshot of an inverted index.
+ * The file holds per-document field lengths, then for each field a term
+ * dictionary sorted by UTF-8 bytes whose entries point into a pool of term
+ * bytes and a pool of posting lists. Opening a segment only reads its header;
+ * terms and postings are paged in by the operating system when looked up.
+ * Documents are identified by their ordinal in the source data file, and the
+ * segment records a checksum of their indexed fields so stale segments can be
+ * detected without being invalidated by changes to unindexed fields.
+ */
+public final class IndexSegment {
+    
+    private static final int MAGIC = 0x42534547;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 20;
+    private static final int DICTIONARY_ENTRY_SIZE = 16;
+    
+    private final ByteBuffer buffer;
+    private final long contentChecksum;
+    private final int documentCount;
+    private final int fieldCount;
+    private final long[] totalFieldLengths;
+    private final int fieldLengthsOffset;
+    private final int[] dictionaryOffsets;
+    private final int[] termCounts;
+    
+    private IndexSegment(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an index segment");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported index segment version: " + buffer.getInt(4));
+        }
+        this.contentChecksum = buffer.getLong(8);
+        this.documentCount = buffer.getInt(16);
+        this.fieldCount = InvertedIndex.Field.values().length;
+        try {
+            int offset = HEADER_SIZE;
+            this.totalFieldLengths = new long[fieldCount];
+            for (int field = 0; field < fieldCount; field++) {
+                totalFieldLengths[field] = buffer.getLong(offset);
+                offset += Long.BYTES;
+            }
+            this.fieldLengthsOffset = offset;
+            offset += documentCount * fieldCount * Integer.BYTES;
+            this.dictionaryOffsets = new int[fieldCount];
+            this.termCounts = new int[fieldCount];
+            for (int field = 0; field < fieldCount; field++) {
+                termCounts[field] = buffer.getInt(offset);
+                dictionaryOffsets[field] = offset + Integer.BYTES;
+                offset = dictionaryOffsets[field] + termCounts[field] * DICTIONARY_ENTRY_SIZE;
+            }
+            if (documentCount < 0 || offset > buffer.capacity()) {
+                throw new IOException("Truncated index segment");
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated index segment", e);
+        }
+    }
+    
+    /**
+     * Map a segment file into memory, reading only its header
+     * 
+     * @throws IOException if the file cannot be read or is not a valid segment
+     */
+    public static IndexSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new IndexSegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    /**
+     * Write a segment file, replacing any existing one atomically
+     * 
+     * @param file Segment file to write
+     * @param contentChecksum Checksum of the indexed fields of the documents
+     * @param fieldLengths Field lengths per document ordinal, indexed by field ordinal
+     * @param postings Per field, each term mapped to interleaved document ordinals and frequencies
+     */
+    static void write(Path file, long contentChecksum, int[][] fieldLengths,
+                      List<Map<String, int[]>> postings) throws IOException {
+        int fieldCount = postings.size();
+        List<List<byte[]>> terms = new ArrayList<>(fieldCount);
+        List<List<int[]>> lists = new ArrayList<>(fieldCount);
+        long[] totals = new long[fieldCount];
+        for (int[] lengths : fieldLengths) {
+            for (int field = 0; field < fieldCount; field++) {
+                totals[field] += lengths[field];
+            }
+        }
+        
+        int dataOffset = HEADER_SIZE + fieldCount * Long.BYTES + fieldLengths.length * fieldCount * Integer.BYTES;
+        for (Map<String, int[]> fieldPostings : postings) {
+            List<Map.Entry<byte[], int[]>> entries = new ArrayList<>(fieldPostings.size());
+            for (Map.Entry<String, int[]> entry : fieldPostings.entrySet()) {
+                entries.add(Map.entry(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue()));
+            }
+            entries.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+            List<byte[]> fieldTerms = new ArrayList<>(entries.size());
+            List<int[]> fieldLists = new ArrayList<>(entries.size());
+            for (Map.Entry<byte[], int[]> entry : entries) {
+                fieldTerms.add(entry.getKey());
+                fieldLists.add(entry.getValue());
+            }
+            terms.add(fieldTerms);
+            lists.add(fieldLists);
+            dataOffset += Integer.BYTES + fieldTerms.size() * DICTIONARY_ENTRY_SIZE;
+        }
+        
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(contentChecksum);
+            out.writeInt(fieldLengths.length);
+            for (long total : totals) {
+                out.writeLong(total);
+            }
+            for (int[] lengths : fieldLengths) {
+                for (int field = 0; field < fieldCount; field++) {
+                    out.writeInt(lengths[field]);
+                }
+            }
+            
+            // Term bytes come first in the data area, then all posting lists
+            int termOffset = dataOffset;
+            int postingsOffset = dataOffset;
+            for (List<byte[]> fieldTerms : terms) {
+                for (byte[] term : fieldTerms) {
+                    postingsOffset += term.length;
+                }
+            }
+            for (int field = 0; field < fieldCount; field++) {
+                out.writeInt(terms.get(field).size());
+                for (int i = 0; i < terms.get(field).size(); i++) {
+                    byte[] term = terms.get(field).get(i);
+                    int[] list = lists.get(field).get(i);
+                    out.writeInt(termOffset);
+                    out.writeInt(term.length);
+                    out.writeInt(postingsOffset);
+                    out.writeInt(list.length / 2);
+                    termOffset += term.length;
+                    postingsOffset += list.length * Integer.BYTES;
+                }
+            }
+            for (List<byte[]> fieldTerms : terms) {
+                for (byte[] term : fieldTerms) {
+                    out.write(term);
+                }
+            }
+            for (List<int[]> fieldLists : lists) {
+                for (int[] list : fieldLists) {
+                    for (int value : list) {
+                        out.writeInt(value);
+                    }
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Checksum of the indexed fields of the documents, as computed by InvertedIndex.contentChecksum
+     */
+    public long getContentChecksum() {
+        return contentChecksum;
+    }
+    
+    public int getDocumentCount() {
+        return documentCount;
+    }
+    
+    int fieldLength(int ordinal, int field) {
+        return buffer.getInt(fieldLengthsOffset + (ordinal * fieldCount + field) * Integer.BYTES);
+    }
+    
+    long totalFieldLength(int field) {
+        return totalFieldLengths[field];
+    }
+    
+    /**
+     * Interleaved document ordinals and frequencies of a term, empty if absent
+     */
+    int[] postings(int field, String term) {
+        int entry = find(field, term.getBytes(StandardCharsets.UTF_8));
+        if (entry < 0) {
+            return new int[0];
+        }
+        int offset = buffer.getInt(entry + 8);
+        int[] postings = new int[buffer.getInt(entry + 12) * 2];
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = buffer.getInt(offset + i * Integer.BYTES);
+        }
+        return postings;
+    }
+    
+    /**
+     * Number of documents containing a term, including any removed since
+     */
+    int documentFrequency(int field, String term) {
+        int entry = find(field, term.getBytes(StandardCharsets.UTF_8));
+        return entry < 0 ? 0 : buffer.getInt(entry + 12);
+    }
+    
+    /**
+     * Binary search the term dictionary of a field, returning the entry offset or -1
+     */
+    private int find(int field, byte[] term) {
+        int low = 0;
+        int high = termCounts[field] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = dictionaryOffsets[field] + mid * DICTIONARY_ENTRY_SIZE;
+            int cmp = compareTerm(buffer.getInt(entry), buffer.getInt(entry + 4), term);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+    
+    private int compareTerm(int offset, int length, byte[] term) {
+        int common = Math.min(length, term.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(offset + i) & 0xFF, term[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, term.length);
+    }
+}
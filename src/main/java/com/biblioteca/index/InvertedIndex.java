@@ -0,0 +1,317 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Document;
+import com.biblioteca.util.TextNormalizer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Inverted index over the title, author and id fields.
+ * For each field it maps every token to the documents containing it with the
+ * token's frequency, and tracks field lengths for relevance scoring.
+ * The index can be backed by a persisted {@link IndexSegment} covering the
+ * documents loaded at startup; documents added later are indexed in memory
+ * and removed segment documents are masked out.
+ */
+public class InvertedIndex implements DocumentIndex {
+    
+    /**
+     * Indexed document fields
+     */
+    public enum Field {
+        TITLE, AUTHOR, ID
+    }
+    
+    private final Map<Field, Map<String, Map<Document, Integer>>> postings;
+    private final Map<Document, int[]> fieldLengths;
+    private final long[] totalFieldLengths;
+    
+    // Persisted postings of the documents loaded at startup, if attached
+    private IndexSegment segment;
+    private List<Document> segmentDocuments;
+    private Map<Document, Integer> segmentOrdinals;
+    private BitSet removedFromSegment;
+    
+    public InvertedIndex() {
+        this.postings = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            postings.put(field, new HashMap<>());
+        }
+        this.fieldLengths = new HashMap<>();
+        this.totalFieldLengths = new long[Field.values().length];
+    }
+    
+    /**
+     * Back this empty index with a persisted segment.
+     * Documents already in the segment are skipped when added afterwards.
+     * 
+     * @param segment Segment built from the same documents
+     * @param documents Documents in segment ordinal order
+     */
+    public synchronized void attach(IndexSegment segment, List<Document> documents) {
+        if (!fieldLengths.isEmpty() || this.segment != null) {
+            throw new IllegalStateException("A segment can only be attached to an empty index");
+        }
+        if (segment.getDocumentCount() != documents.size()) {
+            throw new IllegalArgumentException("Segment does not match the documents");
+        }
+        this.segment = segment;
+        this.segmentDocuments = new ArrayList<>(documents);
+        this.segmentOrdinals = new HashMap<>();
+        for (int i = 0; i < documents.size(); i++) {
+            segmentOrdinals.putIfAbsent(documents.get(i), i);
+        }
+        this.removedFromSegment = new BitSet(documents.size());
+        for (Field field : Field.values()) {
+            totalFieldLengths[field.ordinal()] = segment.totalFieldLength(field.ordinal());
+        }
+    }
+    
+    public synchronized boolean hasSegment() {
+        return segment != null;
+    }
+    
+    /**
+     * Persist this index as a segment, with documents numbered by their position in a list.
+     * The index must be held entirely in memory, which is the case after a full rebuild.
+     * 
+     * The segment records the content checksum of the documents so it can be
+     * matched against them when loaded.
+     * 
+     * @param file Segment file to write
+     * @param documents Indexed documents in the order they are loaded from the data file
+     */
+    public synchronized void writeSegment(Path file, List<Document> documents) throws IOException {
+        if (segment != null) {
+            throw new IllegalStateException("Cannot persist an index backed by a segment");
+        }
+        Map<Document, Integer> ordinals = new HashMap<>();
+        int[][] lengths = new int[documents.size()][];
+        for (int i = 0; i < documents.size(); i++) {
+            ordinals.putIfAbsent(documents.get(i), i);
+            int[] documentLengths = fieldLengths.get(documents.get(i));
+            if (documentLengths == null) {
+                throw new IllegalArgumentException("Document is not indexed: " + documents.get(i).getId());
+            }
+            lengths[i] = documentLengths;
+        }
+        if (ordinals.size() != fieldLengths.size()) {
+            throw new IllegalArgumentException("Documents do not match the indexed documents");
+        }
+        List<Map<String, int[]>> fieldPostings = new ArrayList<>();
+        for (Field field : Field.values()) {
+            Map<String, int[]> terms = new HashMap<>();
+            for (Map.Entry<String, Map<Document, Integer>> term : postings.get(field).entrySet()) {
+                int[] list = new int[term.getValue().size() * 2];
+                int i = 0;
+                for (Map.Entry<Document, Integer> posting : term.getValue().entrySet()) {
+                    list[i++] = ordinals.get(posting.getKey());
+                    list[i++] = posting.getValue();
+                }
+                terms.put(term.getKey(), list);
+            }
+            fieldPostings.add(terms);
+        }
+        IndexSegment.write(file, contentChecksum(documents), lengths, fieldPostings);
+    }
+    
+    /**
+     * Checksum of the indexed fields of documents in order.
+     * It changes only when documents are added, removed, reordered or have their
+     * indexed fields edited, not when other fields such as availability change.
+     */
+    public static long contentChecksum(List<Document> documents) {
+        CRC32 crc = new CRC32();
+        for (Document document : documents) {
+            for (Field field : Field.values()) {
+                crc.update(fieldValue(document, field).getBytes(StandardCharsets.UTF_8));
+                crc.update(0);
+            }
+        }
+        return ((long) documents.size() << 32) ^ crc.getValue();
+    }
+    
+    @Override
+    public synchronized void add(Document document) {
+        if (fieldLengths.containsKey(document) || segmentOrdinalOf(document) >= 0) {
+            return;
+        }
+        int[] lengths = new int[Field.values().length];
+        for (Field field : Field.values()) {
+            List<String> tokens = tokensOf(document, field);
+            Map<String, Map<Document, Integer>> fieldPostings = postings.get(field);
+            for (String token : tokens) {
+                fieldPostings.computeIfAbsent(token, t -> new LinkedHashMap<>())
+                    .merge(document, 1, Integer::sum);
+            }
+            lengths[field.ordinal()] = tokens.size();
+            totalFieldLengths[field.ordinal()] += tokens.size();
+        }
+        fieldLengths.put(document, lengths);
+    }
+    
+    @Override
+    public synchronized void remove(Document document) {
+        int[] lengths = fieldLengths.remove(document);
+        if (lengths == null) {
+            int ordinal = segmentOrdinalOf(document);
+            if (ordinal >= 0) {
+                removedFromSegment.set(ordinal);
+                for (Field field : Field.values()) {
+                    totalFieldLengths[field.ordinal()] -= segment.fieldLength(ordinal, field.ordinal());
+                }
+            }
+            return;
+        }
+        for (Field field : Field.values()) {
+            Map<String, Map<Document, Integer>> fieldPostings = postings.get(field);
+            for (String token : tokensOf(document, field)) {
+                Map<Document, Integer> documents = fieldPostings.get(token);
+                if (documents != null) {
+                    documents.remove(document);
+                    if (documents.isEmpty()) {
+                        fieldPostings.remove(token);
+                    }
+                }
+            }
+            totalFieldLengths[field.ordinal()] -= lengths[field.ordinal()];
+        }
+    }
+    
+    @Override
+    public synchronized void clear() {
+        for (Map<String, Map<Document, Integer>> fieldPostings : postings.values()) {
+            fieldPostings.clear();
+        }
+        fieldLengths.clear();
+        Arrays.fill(totalFieldLengths, 0);
+        segment = null;
+        segmentDocuments = null;
+        segmentOrdinals = null;
+        removedFromSegment = null;
+    }
+    
+    /**
+     * Documents containing a token in a field, mapped to the token's frequency
+     */
+    public synchronized Map<Document, Integer> postings(Field field, String token) {
+        Map<Document, Integer> documents = postings.get(field).get(token);
+        if (segment == null) {
+            return documents != null ? new LinkedHashMap<>(documents) : Collections.emptyMap();
+        }
+        Map<Document, Integer> merged = new LinkedHashMap<>();
+        int[] persisted = segment.postings(field.ordinal(), token);
+        for (int i = 0; i < persisted.length; i += 2) {
+            if (!removedFromSegment.get(persisted[i])) {
+                merged.put(segmentDocuments.get(persisted[i]), persisted[i + 1]);
+            }
+        }
+        if (documents != null) {
+            merged.putAll(documents);
+        }
+        return merged;
+    }
+    
+    /**
+     * Number of documents containing a token in a field
+     */
+    public synchronized int documentFrequency(Field field, String token) {
+        Map<Document, Integer> documents = postings.get(field).get(token);
+        int frequency = documents != null ? documents.size() : 0;
+        if (segment != null) {
+            frequency += removedFromSegment.isEmpty()
+                ? segment.documentFrequency(field.ordinal(), token)
+                : postings(field, token).size() - frequency;
+        }
+        return frequency;
+    }
+    
+    /**
+     * Number of tokens of a field in a document
+     */
+    public synchronized int fieldLength(Document document, Field field) {
+        int[] lengths = fieldLengths.get(document);
+        if (lengths != null) {
+            return lengths[field.ordinal()];
+        }
+        int ordinal = segmentOrdinalOf(document);
+        return ordinal >= 0 ? segment.fieldLength(ordinal, field.ordinal()) : 0;
+    }
+    
+    /**
+     * Average number of tokens of a field across indexed documents
+     */
+    public synchronized double averageFieldLength(Field field) {
+        int count = documentCount();
+        return count == 0 ? 0 : (double) totalFieldLengths[field.ordinal()] / count;
+    }
+    
+    /**
+     * Number of indexed documents
+     */
+    public synchronized int documentCount() {
+        int count = fieldLengths.size();
+        if (segment != null) {
+            count += segment.getDocumentCount() - removedFromSegment.cardinality();
+        }
+        return count;
+    }
+    
+    /**
+     * Ordinal of a document in the attached segment, or -1 if it is not
+     * there or has been removed from it
+     */
+    private int segmentOrdinalOf(Document document) {
+        if (segment == null) {
+            return -1;
+        }
+        Integer ordinal = segmentOrdinals.get(document);
+        return ordinal != null && !removedFromSegment.get(ordinal) ? ordinal : -1;
+    }
+    
+    /**
+     * Tokens a field of a document is indexed under
+     */
+    public static List<String> tokensOf(Document document, Field field) {
+        switch (field) {
+            case TITLE:
+                return TextNormalizer.tokenize(document.getTitle());
+            case AUTHOR:
+                return TextNormalizer.tokenize(document.getAuthor());
+            case ID:
+                List<String> tokens = new ArrayList<>();
+                tokens.add(document.getSearchId());
+                return tokens;
+            default:
+                throw new IllegalArgumentException("Unknown field: " + field);
+        }
+    }
+    
+    private static String fieldValue(Document document, Field field) {
+        String value;
+        switch (field) {
+            case TITLE:
+                value = document.getTitle();
+                break;
+            case AUTHOR:
+                value = document.getAuthor();
+                break;
+            default:
+                value = document.getId();
+                break;
+        }
+        return value != null ? value : "";
+    }
+}
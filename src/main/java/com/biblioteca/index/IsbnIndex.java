@@ -0,0 +1,134 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash index of books by normalised ISBN.
+ * ISBN-10 and ISBN-13 forms of the same number, with or without hyphens and
+ * spaces, share one key, so lookups and duplicate checks take constant time.
+ * Every copy of a book is kept, since a library may hold several.
+ */
+public class IsbnIndex implements DocumentIndex {
+    
+    // Books sharing a key are kept in insertion order; the first one is returned by lookups
+    private final Map<String, List<Book>> books;
+    
+    public IsbnIndex() {
+        this.books = new HashMap<>();
+    }
+    
+    @Override
+    public synchronized void add(Document document) {
+        String key = keyOf(document);
+        if (key != null) {
+            books.computeIfAbsent(key, k -> new ArrayList<>(1)).add((Book) document);
+        }
+    }
+    
+    @Override
+    public synchronized void remove(Document document) {
+        String key = keyOf(document);
+        if (key == null) {
+            return;
+        }
+        List<Book> sharing = books.get(key);
+        if (sharing != null) {
+            sharing.remove(document);
+            if (sharing.isEmpty()) {
+                books.remove(key);
+            }
+        }
+    }
+    
+    @Override
+    public synchronized void clear() {
+        books.clear();
+    }
+    
+    /**
+     * Find the book with an ISBN, in any of its written forms, or null if none
+     */
+    public synchronized Book find(String isbn) {
+        List<Book> sharing = books.get(normalize(isbn));
+        return sharing != null ? sharing.get(0) : null;
+    }
+    
+    /**
+     * Find every book with an ISBN, in insertion order
+     */
+    public synchronized List<Book> findAll(String isbn) {
+        List<Book> sharing = books.get(normalize(isbn));
+        return sharing != null ? new ArrayList<>(sharing) : new ArrayList<>();
+    }
+    
+    public synchronized boolean contains(String isbn) {
+        return books.containsKey(normalize(isbn));
+    }
+    
+    public synchronized int size() {
+        return books.size();
+    }
+    
+    /**
+     * Normalise an ISBN: hyphens and spaces are dropped and a valid ISBN-10 is
+     * converted to its ISBN-13 form. Values that are not ISBNs are only
+     * stripped and upper-cased, so they can still be looked up exactly.
+     */
+    public static String normalize(String isbn) {
+        if (isbn == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(13);
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c != '-' && !Character.isWhitespace(c)) {
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        String stripped = sb.toString();
+        return isValidIsbn10(stripped) ? toIsbn13(stripped) : stripped;
+    }
+    
+    private static String keyOf(Document document) {
+        if (!(document instanceof Book) || ((Book) document).getIsbn() == null) {
+            return null;
+        }
+        String key = normalize(((Book) document).getIsbn());
+        return key.isEmpty() ? null : key;
+    }
+    
+    private static boolean isValidIsbn10(String isbn) {
+        if (isbn.length() != 10) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = isbn.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c == 'X' && i == 9) {
+                digit = 10;
+            } else {
+                return false;
+            }
+            sum += digit * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+    
+    private static String toIsbn13(String isbn10) {
+        String body = "978" + isbn10.substring(0, 9);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,336 @@
+package com.biblioteca.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Radix tree over weighted terms, answering top-k completion queries.
+ * Chains of single-child nodes are collapsed into one edge labelled with the
+ * whole substring, so the tree has at most two nodes per term however long the
+ * terms are. Each node stores its children in sorted parallel arrays keyed by
+ * the first character of their label, and the largest weight in its subtree,
+ * so completions are found best-first and only the branches that can still
+ * contribute to the top k are expanded.
+ * Terms are matched by key, typically a normalised form, while completions
+ * return the display form most often added under that key.
+ */
+public class PrefixTrie {
+    
+    private final Node root;
+    private int termCount;
+    
+    public PrefixTrie() {
+        this.root = new Node("");
+        this.termCount = 0;
+    }
+    
+    /**
+     * Increase the weight of a term by one, adding it if absent
+     */
+    public void add(String term) {
+        add(term, term);
+    }
+    
+    /**
+     * Increase the weight of a term by one, adding it if absent, and record
+     * the form it should be displayed in
+     */
+    public void add(String term, String display) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < term.length()) {
+            Node child = node.child(term.charAt(i));
+            if (child == null) {
+                child = new Node(term.substring(i));
+                node.addChild(child);
+                path.add(child);
+                node = child;
+                break;
+            }
+            int common = commonPrefix(child.label, term, i);
+            if (common < child.label.length()) {
+                child = node.split(child, common);
+            }
+            path.add(child);
+            node = child;
+            i += common;
+        }
+        if (node.weight == 0) {
+            node.term = term;
+            termCount++;
+        }
+        node.weight++;
+        node.displays.merge(display, 1, Integer::sum);
+        for (Node n : path) {
+            n.maxWeight = Math.max(n.maxWeight, node.weight);
+        }
+    }
+    
+    /**
+     * Decrease the weight of a term by one, removing it when it reaches zero
+     */
+    public void remove(String term) {
+        remove(term, term);
+    }
+    
+    /**
+     * Decrease the weight of a term and of one of its display forms by one,
+     * removing the term when it reaches zero
+     */
+    public void remove(String term, String display) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < term.length()) {
+            node = node.child(term.charAt(i));
+            if (node == null || !term.startsWith(node.label, i)) {
+                return;
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+        if (node.weight == 0) {
+            return;
+        }
+        node.weight--;
+        node.displays.computeIfPresent(display, (d, count) -> count > 1 ? count - 1 : null);
+        if (node.weight == 0) {
+            node.term = null;
+            node.displays.clear();
+            termCount--;
+        }
+        for (int j = path.size() - 1; j >= 0; j--) {
+            Node n = path.get(j);
+            n.recomputeMaxWeight();
+            if (j > 0 && n.weight == 0) {
+                // Drop nodes that no longer end a term or branch
+                Node parent = path.get(j - 1);
+                if (n.childCount == 0) {
+                    parent.removeChild(n.label.charAt(0));
+                } else if (n.childCount == 1) {
+                    Node only = n.children[0];
+                    only.label = n.label + only.label;
+                    parent.replaceChild(only);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get the weight of a term, or 0 if absent
+     */
+    public int weight(String term) {
+        Node node = root;
+        int i = 0;
+        while (i < term.length()) {
+            node = node.child(term.charAt(i));
+            if (node == null || !term.startsWith(node.label, i)) {
+                return 0;
+            }
+            i += node.label.length();
+        }
+        return node.weight;
+    }
+    
+    /**
+     * Get up to limit display forms of the terms starting with prefix, heaviest first
+     */
+    public List<String> complete(String prefix, int limit) {
+        List<String> completions = new ArrayList<>();
+        Node start = find(prefix);
+        if (start == null || limit <= 0) {
+            return completions;
+        }
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        long sequence = 0;
+        queue.add(new Candidate(start, false, start.maxWeight, sequence++));
+        while (!queue.isEmpty() && completions.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.terminal) {
+                completions.add(candidate.node.display());
+                continue;
+            }
+            Node node = candidate.node;
+            if (node.weight > 0) {
+                queue.add(new Candidate(node, true, node.weight, sequence++));
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                Node child = node.children[i];
+                queue.add(new Candidate(child, false, child.maxWeight, sequence++));
+            }
+        }
+        return completions;
+    }
+    
+    /**
+     * Number of distinct terms in the trie
+     */
+    public int size() {
+        return termCount;
+    }
+    
+    public void clear() {
+        root.childCount = 0;
+        root.children = new Node[0];
+        root.keys = new char[0];
+        root.weight = 0;
+        root.maxWeight = 0;
+        root.term = null;
+        root.displays.clear();
+        termCount = 0;
+    }
+    
+    /**
+     * Find the highest node whose subtree holds exactly the terms starting with prefix.
+     * The prefix may end inside that node's label.
+     */
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            node = node.child(prefix.charAt(i));
+            if (node == null) {
+                return null;
+            }
+            int length = Math.min(node.label.length(), prefix.length() - i);
+            if (!prefix.regionMatches(i, node.label, 0, length)) {
+                return null;
+            }
+            i += node.label.length();
+        }
+        return node;
+    }
+    
+    private static int commonPrefix(String label, String term, int offset) {
+        int length = Math.min(label.length(), term.length() - offset);
+        int common = 0;
+        while (common < length && label.charAt(common) == term.charAt(offset + common)) {
+            common++;
+        }
+        return common;
+    }
+    
+    private static final class Node {
+        
+        private String label;
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private int weight;
+        private int maxWeight;
+        private String term;
+        // Display forms added under this term, with how often each was added
+        private final Map<String, Integer> displays = new LinkedHashMap<>(2);
+        
+        Node(String label) {
+            this.label = label;
+        }
+        
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, 0, childCount, key);
+            return index >= 0 ? children[index] : null;
+        }
+        
+        void addChild(Node child) {
+            char key = child.label.charAt(0);
+            int index = -Arrays.binarySearch(keys, 0, childCount, key) - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, childCount - index);
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            keys[index] = key;
+            children[index] = child;
+            childCount++;
+        }
+        
+        /**
+         * Put a node in place of the child whose label starts with the same character
+         */
+        void replaceChild(Node child) {
+            children[Arrays.binarySearch(keys, 0, childCount, child.label.charAt(0))] = child;
+        }
+        
+        void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, 0, childCount, key);
+            if (index >= 0) {
+                System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+                System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+                children[--childCount] = null;
+            }
+        }
+        
+        /**
+         * Split a child's edge after its first length characters, returning the new middle node
+         */
+        Node split(Node child, int length) {
+            Node middle = new Node(child.label.substring(0, length));
+            child.label = child.label.substring(length);
+            middle.addChild(child);
+            middle.maxWeight = child.maxWeight;
+            replaceChild(middle);
+            return middle;
+        }
+        
+        void recomputeMaxWeight() {
+            int max = weight;
+            for (int i = 0; i < childCount; i++) {
+                max = Math.max(max, children[i].maxWeight);
+            }
+            maxWeight = max;
+        }
+        
+        /**
+         * The display form added most often, the earliest one on ties
+         */
+        String display() {
+            String best = term;
+            int bestCount = 0;
+            for (Map.Entry<String, Integer> entry : displays.entrySet()) {
+                if (entry.getValue() > bestCount) {
+                    best = entry.getKey();
+                    bestCount = entry.getValue();
+                }
+            }
+            return best;
+        }
+    }
+    
+    /**
+     * Queue entry: either a subtree bounded by its max weight or a finished term
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        
+        private final Node node;
+        private final boolean terminal;
+        private final int priority;
+        private final long sequence;
+        
+        Candidate(Node node, boolean terminal, int priority, long sequence) {
+            this.node = node;
+            this.terminal = terminal;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+        
+        @Override
+        public int compareTo(Candidate other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+            if (terminal != other.terminal) {
+                return terminal ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.biblioteca.io;
 
 import com.biblioteca.exception.LibraryException;
+import com.biblioteca.index.IndexSegment;
+import com.biblioteca.index.InvertedIndex;
 import com.biblioteca.model.*;
 import com.biblioteca.util.LibraryLogger;
+import com.biblioteca.util.StringInterner;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -19,14 +23,18 @@ public class DataPersistence {
     private static final String DOCUMENTS_FILE = "documents.txt";
     private static final String USERS_FILE = "users.txt";
     private static final String LOANS_FILE = "loans.txt";
+    private static final String SEARCH_INDEX_FILE = "search-index.seg";
     private static final String DELIMITER = "|";
     
     private final FileManager fileManager;
     private final LibraryLogger logger;
+    // Shares one instance per repeated field value across loaded records
+    private final StringInterner interner;
     
     public DataPersistence(FileManager fileManager) {
         this.fileManager = fileManager;
         this.logger = LibraryLogger.getInstance();
+        this.interner = StringInterner.getInstance();
     }
     
     // ==================== DOCUMENTS ====================
@@ -101,7 +109,7 @@ public class DataPersistence {
         Document.DocumentType type = Document.DocumentType.valueOf(parts[0]);
         String id = parts[1];
         String title = parts[2];
-        String author = parts[3];
+        String author = interner.intern(parts[3]);
         LocalDate pubDate = LocalDate.parse(parts[4]);
         boolean available = Boolean.parseBoolean(parts[5]);
         
@@ -109,10 +117,10 @@ public class DataPersistence {
         
         if (type == Document.DocumentType.BOOK && parts.length >= 9) {
             doc = new Book(id, title, author, pubDate, 
-                          parts[6], Integer.parseInt(parts[7]), parts[8]);
+                          parts[6], Integer.parseInt(parts[7]), interner.intern(parts[8]));
         } else if (type == Document.DocumentType.MAGAZINE && parts.length >= 9) {
             doc = new Magazine(id, title, author, pubDate,
-                             Integer.parseInt(parts[6]), parts[7], parts[8]);
+                             Integer.parseInt(parts[6]), interner.intern(parts[7]), interner.intern(parts[8]));
         }
         
         if (doc != null) {
@@ -250,7 +258,7 @@ public class DataPersistence {
             return null;
         }
         
-        Loan loan = new Loan(parts[0], parts[1], parts[2],
+        Loan loan = new Loan(parts[0], interner.intern(parts[1]), interner.intern(parts[2]),
                             LocalDate.parse(parts[3]), LocalDate.parse(parts[4]));
         
         if (!parts[5].isEmpty()) {
@@ -261,4 +269,47 @@ public class DataPersistence {
         
         return loan;
     }
+    
+    // ==================== SEARCH INDEX ====================
+    
+    /**
+     * Open the persisted search index if it was built from the same documents.
+     * Only the indexed fields are compared, so changes such as loans and returns
+     * do not make the segment stale.
+     * The segment is memory-mapped; its contents are read only when looked up.
+     * 
+     * @param documents Documents as loaded from the documents file
+     * @return The segment, or null if it is missing, unreadable or stale
+     */
+    public IndexSegment loadSearchIndex(List<Document> documents) {
+        if (!fileManager.fileExists(SEARCH_INDEX_FILE)) {
+            return null;
+        }
+        try {
+            IndexSegment segment = IndexSegment.open(fileManager.getPath(SEARCH_INDEX_FILE));
+            if (segment.getDocumentCount() != documents.size()
+                    || segment.getContentChecksum() != InvertedIndex.contentChecksum(documents)) {
+                logger.info("Search index is stale and will be rebuilt");
+                return null;
+            }
+            logger.info("Opened search index for " + documents.size() + " documents");
+            return segment;
+        } catch (IOException e) {
+            logger.warning("Failed to open search index: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Persist a search index built from the documents as loaded from the documents file
+     */
+    public void saveSearchIndex(InvertedIndex index, List<Document> documents) throws LibraryException {
+        try {
+            index.writeSegment(fileManager.getPath(SEARCH_INDEX_FILE), documents);
+            logger.info("Saved search index for " + documents.size() + " documents");
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Failed to save search index", e);
+            throw new LibraryException("Failed to save search index", e);
+        }
+    }
 }
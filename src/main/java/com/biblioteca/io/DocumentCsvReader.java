@@ -0,0 +1,176 @@
+package com.biblioteca.io;
+
+import com.biblioteca.factory.DocumentCreationParams;
+import com.biblioteca.model.Document;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams document records from a CSV file in batches, so large imports are
+ * never held in memory as text.
+ * Columns are type, id, title, author and publication date (yyyy-MM-dd),
+ * followed by isbn, pages and genre for books, or issue number, publisher and
+ * frequency for magazines. Fields may be quoted, with "" for a literal quote.
+ * A leading header row and blank lines are skipped.
+ */
+public class DocumentCsvReader implements Closeable {
+    
+    private static final String[] BOOK_FIELDS = {"isbn", "pages", "genre"};
+    private static final String[] MAGAZINE_FIELDS = {"issueNumber", "publisher", "frequency"};
+    private static final int COMMON_COLUMNS = 5;
+    
+    private final BufferedReader reader;
+    private int lineNumber;
+    
+    public DocumentCsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+    
+    /**
+     * Open a UTF-8 CSV file
+     */
+    public static DocumentCsvReader open(Path path) throws IOException {
+        return new DocumentCsvReader(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Read up to the given number of records
+     *
+     * @return The records read, empty once the input is exhausted
+     */
+    public List<Record> readBatch(int maxRecords) throws IOException {
+        List<Record> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        String line;
+        while (records.size() < maxRecords && (line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            List<String> fields = split(line);
+            if (lineNumber == 1 && fields.get(0).trim().equalsIgnoreCase("type")) {
+                continue;
+            }
+            records.add(parse(lineNumber, fields));
+        }
+        return records;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    private static Record parse(int lineNumber, List<String> fields) {
+        Document.DocumentType type;
+        try {
+            type = Document.DocumentType.valueOf(fields.get(0).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Record.rejected(lineNumber, "Unknown document type: " + fields.get(0));
+        }
+        String[] extraFields = type == Document.DocumentType.BOOK ? BOOK_FIELDS : MAGAZINE_FIELDS;
+        if (fields.size() != COMMON_COLUMNS + extraFields.length) {
+            return Record.rejected(lineNumber, "Expected " + (COMMON_COLUMNS + extraFields.length)
+                                   + " columns but found " + fields.size());
+        }
+        
+        LocalDate publicationDate;
+        try {
+            publicationDate = LocalDate.parse(fields.get(4).trim());
+        } catch (DateTimeParseException e) {
+            return Record.rejected(lineNumber, "Invalid publication date: " + fields.get(4));
+        }
+        
+        DocumentCreationParams.Builder builder = new DocumentCreationParams.Builder()
+            .id(fields.get(1).trim())
+            .title(fields.get(2).trim())
+            .author(fields.get(3).trim())
+            .publicationDate(publicationDate);
+        for (int i = 0; i < extraFields.length; i++) {
+            builder.addExtraParam(extraFields[i], fields.get(COMMON_COLUMNS + i).trim());
+        }
+        return new Record(lineNumber, type, builder.build(), null);
+    }
+    
+    /**
+     * Split a line into fields, honouring quotes
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    /**
+     * One CSV row: the parameters to create a document from, or the reason it was rejected
+     */
+    public static final class Record {
+        
+        private final int lineNumber;
+        private final Document.DocumentType type;
+        private final DocumentCreationParams params;
+        private final String error;
+        
+        private Record(int lineNumber, Document.DocumentType type, DocumentCreationParams params, String error) {
+            this.lineNumber = lineNumber;
+            this.type = type;
+            this.params = params;
+            this.error = error;
+        }
+        
+        static Record rejected(int lineNumber, String error) {
+            return new Record(lineNumber, null, null, error);
+        }
+        
+        public int getLineNumber() {
+            return lineNumber;
+        }
+        
+        public Document.DocumentType getType() {
+            return type;
+        }
+        
+        public DocumentCreationParams getParams() {
+            return params;
+        }
+        
+        /**
+         * Why the row could not be parsed, or null if it was
+         */
+        public String getError() {
+            return error;
+        }
+    }
+}
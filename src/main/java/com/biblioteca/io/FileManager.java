@@ -4,6 +4,8 @@ import com.biblioteca.exception.LibraryException;
 import com.biblioteca.util.LibraryLogger;
 
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -136,6 +138,13 @@ public class FileManager {
         }
     }
     
+    /**
+     * Get the path of a file in the data directory
+     */
+    public Path getPath(String filename) {
+        return Paths.get(dataDirectory, filename);
+    }
+    
     /**
      * Check if file exists
      */
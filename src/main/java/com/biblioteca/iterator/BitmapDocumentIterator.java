@@ -0,0 +1,49 @@
+package com.biblioteca.iterator;
+
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.model.Document;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the documents of an array whose positions are set in a bitmap.
+ */
+public class BitmapDocumentIterator implements Iterator<Document> {
+    
+    private final Document[] documents;
+    private final CompressedBitmap positions;
+    private int nextIndex;
+    private int currentPosition;
+    
+    public BitmapDocumentIterator(Document[] documents, CompressedBitmap positions) {
+        this.documents = documents;
+        this.positions = positions;
+        reset();
+    }
+    
+    @Override
+    public boolean hasNext() {
+        return nextIndex >= 0 && nextIndex < documents.length;
+    }
+    
+    @Override
+    public Document next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more documents to iterate");
+        }
+        Document document = documents[nextIndex];
+        nextIndex = positions.nextSetBit(nextIndex + 1);
+        currentPosition++;
+        return document;
+    }
+    
+    @Override
+    public void reset() {
+        nextIndex = positions.nextSetBit(0);
+        currentPosition = 0;
+    }
+    
+    @Override
+    public int getCurrentPosition() {
+        return currentPosition;
+    }
+}
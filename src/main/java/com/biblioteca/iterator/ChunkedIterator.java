@@ -0,0 +1,57 @@
+package com.biblioteca.iterator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator decorator that groups elements of another iterator into batches.
+ * Each batch is pulled lazily from the source when requested.
+ */
+public class ChunkedIterator<T> implements Iterator<List<T>> {
+    
+    private final Iterator<T> source;
+    private final int batchSize;
+    private int currentPosition;
+    
+    public ChunkedIterator(Iterator<T> source, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.source = source;
+        this.batchSize = batchSize;
+        this.currentPosition = 0;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        return source.hasNext();
+    }
+    
+    @Override
+    public List<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more batches to iterate");
+        }
+        List<T> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && source.hasNext()) {
+            batch.add(source.next());
+        }
+        currentPosition++;
+        return batch;
+    }
+    
+    @Override
+    public void reset() {
+        source.reset();
+        currentPosition = 0;
+    }
+    
+    /**
+     * Number of batches returned so far
+     */
+    @Override
+    public int getCurrentPosition() {
+        return currentPosition;
+    }
+}
@@ -1,59 +1,467 @@
 package com.biblioteca.iterator;
 
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.index.DocumentIndex;
+import com.biblioteca.index.FacetIndex;
 import com.biblioteca.model.Document;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Collection of documents with iterator support.
+ * Uses copy-on-write storage: readers share an immutable, versioned snapshot
+ * while writers publish a new one, so reads never copy the catalog.
+ * Availability, type and id are indexed by position so filters on them
+ * are answered from compressed bitmaps instead of per-document checks;
+ * facet values are indexed the same way so results can be counted by facet.
+ * Registered secondary indexes are notified of every addition and removal.
+ * Streams split the snapshot array in place, so scans run in parallel without a copy.
  */
 public class DocumentCollection implements Collection<Document> {
     
-    private final List<Document> documents;
+    private volatile Snapshot snapshot;
+    
+    // Position indexes, guarded by this collection's lock
+    private final CompressedBitmap availableIndex;
+    private final Map<Document.DocumentType, CompressedBitmap> typeIndex;
+    private final Map<String, Integer> idIndex;
+    private final FacetIndex facetIndex;
+    private final List<DocumentIndex> secondaryIndexes;
     
     public DocumentCollection() {
-        this.documents = new ArrayList<>();
+        this.snapshot = Snapshot.EMPTY;
+        this.availableIndex = new CompressedBitmap();
+        this.typeIndex = new EnumMap<>(Document.DocumentType.class);
+        this.idIndex = new HashMap<>();
+        this.facetIndex = new FacetIndex();
+        this.secondaryIndexes = new ArrayList<>();
+    }
+    
+    /**
+     * Register a secondary index, populating it with the current documents
+     */
+    public synchronized void addIndex(DocumentIndex index) {
+        secondaryIndexes.add(index);
+        for (Document document : snapshot.items) {
+            index.add(document);
+        }
     }
     
     @Override
     public Iterator<Document> createIterator() {
-        return new DocumentIterator(documents);
+        return new DocumentIterator(snapshot.view);
     }
     
     @Override
-    public void add(Document document) {
+    public synchronized void add(Document document) {
         if (document != null) {
-            documents.add(document);
+            Document[] current = snapshot.items;
+            Document[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = document;
+            indexDocument(document, current.length);
+            notifyAdded(document);
+            publish(next);
+        }
+    }
+    
+    /**
+     * Add several documents while publishing a single new snapshot
+     */
+    public synchronized void addAll(List<Document> documents) {
+        Document[] current = snapshot.items;
+        Document[] next = Arrays.copyOf(current, current.length + documents.size());
+        int size = current.length;
+        for (Document document : documents) {
+            if (document != null) {
+                indexDocument(document, size);
+                notifyAdded(document);
+                next[size++] = document;
+            }
         }
+        publish(size == next.length ? next : Arrays.copyOf(next, size));
     }
     
     @Override
-    public void remove(Document document) {
-        documents.remove(document);
+    public synchronized void remove(Document document) {
+        if (document == null) {
+            return;
+        }
+        Integer index = idIndex.get(document.getId());
+        if (index == null) {
+            return;
+        }
+        Document[] current = snapshot.items;
+        for (DocumentIndex secondaryIndex : secondaryIndexes) {
+            secondaryIndex.remove(current[index]);
+        }
+        Document[] next = new Document[current.length - 1];
+        System.arraycopy(current, 0, next, 0, index);
+        System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+        unindexPosition(current[index], index, next);
+        publish(next);
     }
     
     @Override
     public int size() {
-        return documents.size();
+        return snapshot.items.length;
     }
     
     @Override
     public boolean isEmpty() {
-        return documents.isEmpty();
+        return snapshot.items.length == 0;
     }
     
     public Document get(int index) {
-        if (index >= 0 && index < documents.size()) {
-            return documents.get(index);
+        Document[] items = snapshot.items;
+        if (index >= 0 && index < items.length) {
+            return items[index];
         }
         return null;
     }
     
-    public void clear() {
-        documents.clear();
+    public synchronized void clear() {
+        Document[] next = new Document[0];
+        rebuildIndexes(next);
+        for (DocumentIndex secondaryIndex : secondaryIndexes) {
+            secondaryIndex.clear();
+        }
+        publish(next);
+    }
+    
+    /**
+     * Find a document by ID using the id index
+     */
+    public synchronized Document findById(String id) {
+        Integer index = idIndex.get(id);
+        return index != null ? snapshot.items[index] : null;
+    }
+    
+    /**
+     * Change the availability of a document and keep the availability index current.
+     * Availability must be changed through this method for indexed filters to see it.
+     */
+    public synchronized void setAvailable(Document document, boolean available) {
+        document.setAvailable(available);
+        Integer index = idIndex.get(document.getId());
+        if (index != null && snapshot.items[index] == document) {
+            availableIndex.set(index, available);
+        }
+    }
+    
+    /**
+     * Change the availability of several documents under a single lock,
+     * so indexed readers see either none or all of the changes
+     */
+    public synchronized void setAvailable(List<Document> documents, boolean available) {
+        for (Document document : documents) {
+            document.setAvailable(available);
+            Integer index = idIndex.get(document.getId());
+            if (index != null && snapshot.items[index] == document) {
+                availableIndex.set(index, available);
+            }
+        }
+    }
+    
+    /**
+     * Create an iterator over the documents matching a filter.
+     * Indexed criteria select the candidates up front; the residual predicate
+     * is evaluated lazily as the iterator advances.
+     */
+    public Iterator<Document> createFilteredIterator(DocumentFilter filter) {
+        Document[] items;
+        CompressedBitmap candidates;
+        synchronized (this) {
+            items = snapshot.items;
+            candidates = candidatesFor(filter, items.length);
+        }
+        Iterator<Document> iterator = new BitmapDocumentIterator(items, candidates);
+        if (filter.getPredicate() != null) {
+            iterator = new FilteredIterator<>(iterator, filter.getPredicate());
+        }
+        return iterator;
+    }
+    
+    /**
+     * Create an iterator returning the documents matching a filter in batches
+     */
+    public Iterator<List<Document>> createChunkedIterator(DocumentFilter filter, int batchSize) {
+        return new ChunkedIterator<>(createFilteredIterator(filter), batchSize);
+    }
+    
+    /**
+     * Keep only the documents of a list (such as search results) that match a filter.
+     * Indexed criteria are applied by intersecting the list's positions with the indexes.
+     */
+    public List<Document> select(List<Document> documents, DocumentFilter filter) {
+        List<Document> selected;
+        synchronized (this) {
+            selected = documentsAt(positionsOf(documents).and(positionsOf(filter)));
+        }
+        if (filter.getPredicate() == null) {
+            return selected;
+        }
+        List<Document> result = new ArrayList<>(selected.size());
+        for (Document document : selected) {
+            if (filter.getPredicate().test(document)) {
+                result.add(document);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Positions of the documents matching the indexed criteria of a filter.
+     * The residual predicate of the filter is ignored.
+     */
+    public synchronized CompressedBitmap positionsOf(DocumentFilter filter) {
+        return candidatesFor(filter, snapshot.items.length);
+    }
+    
+    /**
+     * Positions of the given documents that belong to this collection
+     */
+    public synchronized CompressedBitmap positionsOf(Iterable<Document> documents) {
+        CompressedBitmap positions = new CompressedBitmap();
+        for (Document document : documents) {
+            Integer index = idIndex.get(document.getId());
+            if (index != null) {
+                positions.add(index);
+            }
+        }
+        return positions;
+    }
+    
+    /**
+     * Documents at the given positions, in collection order
+     */
+    public synchronized List<Document> documentsAt(CompressedBitmap positions) {
+        Document[] items = snapshot.items;
+        List<Document> documents = new ArrayList<>(positions.cardinality());
+        Iterator<Document> iterator = new BitmapDocumentIterator(items, positions);
+        while (iterator.hasNext()) {
+            documents.add(iterator.next());
+        }
+        return documents;
+    }
+    
+    /**
+     * Count the documents matching a filter
+     */
+    public int count(DocumentFilter filter) {
+        if (filter.getPredicate() == null) {
+            synchronized (this) {
+                return candidatesFor(filter, snapshot.items.length).cardinality();
+            }
+        }
+        return (int) stream(filter).count();
+    }
+    
+    /**
+     * Count the whole catalogue by facet
+     */
+    public synchronized Map<FacetIndex.Facet, Map<String, Integer>> facetCounts() {
+        return facetIndex.count(null);
+    }
+    
+    /**
+     * Count the documents at the given positions by facet
+     */
+    public synchronized Map<FacetIndex.Facet, Map<String, Integer>> facetCounts(CompressedBitmap positions) {
+        return facetIndex.count(positions);
     }
     
+    /**
+     * Count the given documents, such as search results, by facet
+     */
+    public synchronized Map<FacetIndex.Facet, Map<String, Integer>> facetCounts(Iterable<Document> documents) {
+        return facetIndex.count(positionsOf(documents));
+    }
+    
+    /**
+     * Get an immutable snapshot of all documents.
+     * The returned list is shared and never changes, even if the collection does.
+     */
     public List<Document> getAll() {
-        return new ArrayList<>(documents);
+        return snapshot.view;
+    }
+    
+    /**
+     * Create a splittable iterator over the current snapshot
+     */
+    public Spliterator<Document> spliterator() {
+        return new DocumentSpliterator(snapshot.items);
+    }
+    
+    /**
+     * Sequential stream over the current snapshot
+     */
+    public Stream<Document> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+    
+    /**
+     * Parallel stream over the current snapshot
+     */
+    public Stream<Document> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+    
+    /**
+     * Sequential stream over the documents matching a filter.
+     * Indexed criteria select the candidates up front; the residual predicate
+     * is evaluated as the stream is consumed.
+     */
+    public Stream<Document> stream(DocumentFilter filter) {
+        return filteredStream(filter, false);
+    }
+    
+    /**
+     * Parallel stream over the documents matching a filter
+     */
+    public Stream<Document> parallelStream(DocumentFilter filter) {
+        return filteredStream(filter, true);
+    }
+    
+    /**
+     * Get the version of the current snapshot; it increases whenever documents are
+     * added or removed, but not when their availability changes
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+    
+    private Stream<Document> filteredStream(DocumentFilter filter, boolean parallel) {
+        Document[] items;
+        CompressedBitmap candidates;
+        synchronized (this) {
+            items = snapshot.items;
+            candidates = candidatesFor(filter, items.length);
+        }
+        Stream<Document> stream = StreamSupport.stream(new DocumentSpliterator(items, candidates), parallel);
+        return filter.getPredicate() != null ? stream.filter(filter.getPredicate()) : stream;
+    }
+    
+    /**
+     * Positions selected by the indexed criteria of a filter, as a bitmap owned by the caller
+     */
+    private CompressedBitmap candidatesFor(DocumentFilter filter, int size) {
+        CompressedBitmap ofType = null;
+        if (filter.getType() != null) {
+            ofType = typeIndex.get(filter.getType());
+            if (ofType == null) {
+                return new CompressedBitmap();
+            }
+        }
+        if (Boolean.TRUE.equals(filter.getAvailable())) {
+            return ofType == null ? availableIndex.copy() : ofType.and(availableIndex);
+        }
+        if (Boolean.FALSE.equals(filter.getAvailable())) {
+            return (ofType == null ? CompressedBitmap.range(0, size) : ofType).andNot(availableIndex);
+        }
+        return ofType == null ? CompressedBitmap.range(0, size) : ofType.copy();
+    }
+    
+    private void indexDocument(Document document, int index) {
+        if (document.isAvailable()) {
+            availableIndex.add(index);
+        }
+        typeIndex.computeIfAbsent(document.getType(), type -> new CompressedBitmap()).add(index);
+        idIndex.putIfAbsent(document.getId(), index);
+        facetIndex.add(document, index);
+    }
+    
+    /**
+     * Drop the position of a removed document, moving the positions after it down by one
+     */
+    private void unindexPosition(Document removed, int index, Document[] items) {
+        availableIndex.removeAndShift(index);
+        typeIndex.values().removeIf(positions -> {
+            positions.removeAndShift(index);
+            return positions.isEmpty();
+        });
+        facetIndex.removeAndShift(index);
+        idIndex.remove(removed.getId());
+        for (int i = index; i < items.length; i++) {
+            // Only the first document with an id is indexed, so skip later duplicates
+            Integer position = idIndex.get(items[i].getId());
+            if (position == null || position == i + 1) {
+                idIndex.put(items[i].getId(), i);
+            }
+        }
+    }
+    
+    private void notifyAdded(Document document) {
+        for (DocumentIndex secondaryIndex : secondaryIndexes) {
+            secondaryIndex.add(document);
+        }
+    }
+    
+    private void rebuildIndexes(Document[] items) {
+        availableIndex.clear();
+        typeIndex.clear();
+        idIndex.clear();
+        facetIndex.clear();
+        for (int i = 0; i < items.length; i++) {
+            indexDocument(items[i], i);
+        }
+    }
+    
+    private void publish(Document[] items) {
+        snapshot = new Snapshot(items, snapshot.version + 1);
+    }
+    
+    /**
+     * Immutable state published to readers
+     */
+    private static final class Snapshot {
+        
+        static final Snapshot EMPTY = new Snapshot(new Document[0], 0);
+        
+        final Document[] items;
+        final List<Document> view;
+        final long version;
+        
+        Snapshot(Document[] items, long version) {
+            this.items = items;
+            this.view = new SnapshotList(items);
+            this.version = version;
+        }
+    }
+    
+    /**
+     * Read-only list view of a snapshot array whose streams split the array in place,
+     * so scans over it, including parallel ones, never copy it
+     */
+    private static final class SnapshotList extends AbstractList<Document> implements RandomAccess {
+        
+        private final Document[] items;
+        
+        SnapshotList(Document[] items) {
+            this.items = items;
+        }
+        
+        @Override
+        public Document get(int index) {
+            return items[index];
+        }
+        
+        @Override
+        public int size() {
+            return items.length;
+        }
+        
+        @Override
+        public Spliterator<Document> spliterator() {
+            return new DocumentSpliterator(items);
+        }
     }
 }
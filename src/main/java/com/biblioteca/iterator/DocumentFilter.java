@@ -0,0 +1,80 @@
+package com.biblioteca.iterator;
+
+import com.biblioteca.model.Document;
+import java.util.function.Predicate;
+
+/**
+ * Filter over a document collection.
+ * Availability and type criteria are answered from the collection's indexes;
+ * any remaining predicate is evaluated lazily on the candidates only.
+ */
+public class DocumentFilter {
+    
+    private final Boolean available;
+    private final Document.DocumentType type;
+    private final Predicate<Document> predicate;
+    
+    private DocumentFilter(Builder builder) {
+        this.available = builder.available;
+        this.type = builder.type;
+        this.predicate = builder.predicate;
+    }
+    
+    /**
+     * Required availability, or null if any
+     */
+    public Boolean getAvailable() {
+        return available;
+    }
+    
+    /**
+     * Required document type, or null if any
+     */
+    public Document.DocumentType getType() {
+        return type;
+    }
+    
+    /**
+     * Residual predicate that cannot be answered from an index, or null if none
+     */
+    public Predicate<Document> getPredicate() {
+        return predicate;
+    }
+    
+    /**
+     * Check a single document against every criterion of this filter
+     */
+    public boolean matches(Document document) {
+        return (available == null || document.isAvailable() == available)
+            && (type == null || document.getType() == type)
+            && (predicate == null || predicate.test(document));
+    }
+    
+    /**
+     * Builder class for constructing DocumentFilter
+     */
+    public static class Builder {
+        private Boolean available;
+        private Document.DocumentType type;
+        private Predicate<Document> predicate;
+        
+        public Builder available(boolean available) {
+            this.available = available;
+            return this;
+        }
+        
+        public Builder type(Document.DocumentType type) {
+            this.type = type;
+            return this;
+        }
+        
+        public Builder matching(Predicate<Document> predicate) {
+            this.predicate = this.predicate == null ? predicate : this.predicate.and(predicate);
+            return this;
+        }
+        
+        public DocumentFilter build() {
+            return new DocumentFilter(this);
+        }
+    }
+}
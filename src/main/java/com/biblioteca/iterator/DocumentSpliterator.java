@@ -0,0 +1,100 @@
+package com.biblioteca.iterator;
+
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.model.Document;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Splittable iterator over a range of a document array.
+ * Allows streams to traverse a collection snapshot in parallel without copying it.
+ * When given a bitmap of positions, only the documents at those positions are visited.
+ */
+public class DocumentSpliterator implements Spliterator<Document> {
+    
+    private final Document[] documents;
+    private final CompressedBitmap positions;
+    private int currentPosition;
+    private final int fence;
+    
+    public DocumentSpliterator(Document[] documents) {
+        this(documents, null, 0, documents.length);
+    }
+    
+    public DocumentSpliterator(Document[] documents, CompressedBitmap positions) {
+        this(documents, positions, 0, documents.length);
+    }
+    
+    public DocumentSpliterator(Document[] documents, CompressedBitmap positions, int origin, int fence) {
+        this.documents = documents;
+        this.positions = positions;
+        this.currentPosition = origin;
+        this.fence = fence;
+    }
+    
+    @Override
+    public boolean tryAdvance(Consumer<? super Document> action) {
+        int next = nextPosition(currentPosition);
+        if (next < fence) {
+            currentPosition = next + 1;
+            action.accept(documents[next]);
+            return true;
+        }
+        currentPosition = fence;
+        return false;
+    }
+    
+    @Override
+    public void forEachRemaining(Consumer<? super Document> action) {
+        Document[] items = documents;
+        int end = fence;
+        if (positions == null) {
+            for (int i = currentPosition; i < end; i++) {
+                action.accept(items[i]);
+            }
+        } else {
+            int i = positions.nextSetBit(currentPosition);
+            while (i >= 0 && i < end) {
+                action.accept(items[i]);
+                i = positions.nextSetBit(i + 1);
+            }
+        }
+        currentPosition = end;
+    }
+    
+    /**
+     * Split off the first half of the remaining range
+     */
+    @Override
+    public Spliterator<Document> trySplit() {
+        int origin = currentPosition;
+        int mid = (origin + fence) >>> 1;
+        if (origin >= mid) {
+            return null;
+        }
+        currentPosition = mid;
+        return new DocumentSpliterator(documents, positions, origin, mid);
+    }
+    
+    /**
+     * Exact without a bitmap; otherwise an upper bound
+     */
+    @Override
+    public long estimateSize() {
+        return fence - currentPosition;
+    }
+    
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | IMMUTABLE | NONNULL;
+        return positions == null ? characteristics | SIZED | SUBSIZED : characteristics;
+    }
+    
+    private int nextPosition(int from) {
+        if (positions == null) {
+            return from;
+        }
+        int next = positions.nextSetBit(from);
+        return next >= 0 ? next : fence;
+    }
+}
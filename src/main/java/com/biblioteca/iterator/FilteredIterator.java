@@ -0,0 +1,62 @@
+package com.biblioteca.iterator;
+
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Iterator decorator that lazily skips elements not matching a predicate.
+ */
+public class FilteredIterator<T> implements Iterator<T> {
+    
+    private final Iterator<T> source;
+    private final Predicate<? super T> predicate;
+    private T nextMatch;
+    private boolean hasNextMatch;
+    private int currentPosition;
+    
+    public FilteredIterator(Iterator<T> source, Predicate<? super T> predicate) {
+        this.source = source;
+        this.predicate = predicate;
+        this.currentPosition = 0;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        while (!hasNextMatch && source.hasNext()) {
+            T candidate = source.next();
+            if (predicate.test(candidate)) {
+                nextMatch = candidate;
+                hasNextMatch = true;
+            }
+        }
+        return hasNextMatch;
+    }
+    
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more matching elements to iterate");
+        }
+        T result = nextMatch;
+        nextMatch = null;
+        hasNextMatch = false;
+        currentPosition++;
+        return result;
+    }
+    
+    @Override
+    public void reset() {
+        source.reset();
+        nextMatch = null;
+        hasNextMatch = false;
+        currentPosition = 0;
+    }
+    
+    /**
+     * Number of matching elements returned so far
+     */
+    @Override
+    public int getCurrentPosition() {
+        return currentPosition;
+    }
+}
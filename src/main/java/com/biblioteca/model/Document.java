@@ -1,22 +1,35 @@
 package com.biblioteca.model;
 
+import com.biblioteca.util.EpochDay;
+import com.biblioteca.util.TextNormalizer;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.Objects;
 
 /**
  * Abstract base class for library documents.
+ * Keeps normalised search keys for its id, title and author so searches
+ * compare against them without normalising every document per query.
+ * The publication date is stored as an epoch-day int; its getter returns a view.
  */
 public abstract class Document implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     
     private String id;
     private String title;
     private String author;
-    private LocalDate publicationDate;
+    private int publicationDay;
     private boolean available;
     private DocumentType type;
     
+    // Normalised search keys, derived from the fields above
+    private transient String searchId;
+    private transient String searchTitle;
+    private transient String searchAuthor;
+    
     public enum DocumentType {
         BOOK, MAGAZINE, DVD, NEWSPAPER
     }
@@ -25,9 +38,10 @@ public abstract class Document implements Serializable {
         this.id = id;
         this.title = title;
         this.author = author;
-        this.publicationDate = publicationDate;
+        this.publicationDay = EpochDay.of(publicationDate);
         this.available = true;
         this.type = type;
+        updateSearchKeys();
     }
     
     public final String getDisplayInfo() {
@@ -36,7 +50,7 @@ public abstract class Document implements Serializable {
         info.append("ID: ").append(id).append("\n");
         info.append("Title: ").append(title).append("\n");
         info.append("Author: ").append(author).append("\n");
-        info.append("Publication Date: ").append(publicationDate).append("\n");
+        info.append("Publication Date: ").append(getPublicationDate()).append("\n");
         info.append(getSpecificInfo());
         info.append("Available: ").append(available ? "Yes" : "No").append("\n");
         return info.toString();
@@ -53,6 +67,7 @@ public abstract class Document implements Serializable {
     
     public void setId(String id) {
         this.id = id;
+        this.searchId = TextNormalizer.normalize(id);
     }
     
     public String getTitle() {
@@ -61,6 +76,7 @@ public abstract class Document implements Serializable {
     
     public void setTitle(String title) {
         this.title = title;
+        this.searchTitle = TextNormalizer.normalize(title);
     }
     
     public String getAuthor() {
@@ -69,14 +85,22 @@ public abstract class Document implements Serializable {
     
     public void setAuthor(String author) {
         this.author = author;
+        this.searchAuthor = TextNormalizer.normalize(author);
     }
     
     public LocalDate getPublicationDate() {
-        return publicationDate;
+        return EpochDay.toLocalDate(publicationDay);
     }
     
     public void setPublicationDate(LocalDate publicationDate) {
-        this.publicationDate = publicationDate;
+        this.publicationDay = EpochDay.of(publicationDate);
+    }
+    
+    /**
+     * Publication date as an epoch day, or EpochDay.NONE if unset
+     */
+    public int getPublicationEpochDay() {
+        return publicationDay;
     }
     
     public boolean isAvailable() {
@@ -87,6 +111,27 @@ public abstract class Document implements Serializable {
         this.available = available;
     }
     
+    /**
+     * Normalised form of the id used for searching
+     */
+    public String getSearchId() {
+        return searchId;
+    }
+    
+    /**
+     * Normalised form of the title used for searching
+     */
+    public String getSearchTitle() {
+        return searchTitle;
+    }
+    
+    /**
+     * Normalised form of the author used for searching
+     */
+    public String getSearchAuthor() {
+        return searchAuthor;
+    }
+    
     public DocumentType getType() {
         return type;
     }
@@ -95,6 +140,20 @@ public abstract class Document implements Serializable {
         this.type = type;
     }
     
+    private void updateSearchKeys() {
+        this.searchId = TextNormalizer.normalize(id);
+        this.searchTitle = TextNormalizer.normalize(title);
+        this.searchAuthor = TextNormalizer.normalize(author);
+    }
+    
+    /**
+     * Search keys are not serialised; derive them again when loading
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        updateSearchKeys();
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
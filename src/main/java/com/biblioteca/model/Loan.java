@@ -1,21 +1,24 @@
 package com.biblioteca.model;
 
+import com.biblioteca.util.EpochDay;
+
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.Objects;
 
 /**
  * Represents a loan transaction in the library.
+ * Dates are stored as epoch-day ints; the LocalDate getters return views.
  */
 public class Loan implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     
     private String loanId;
     private String userId;
     private String documentId;
-    private LocalDate loanDate;
-    private LocalDate dueDate;
-    private LocalDate returnDate;
+    private int loanDay;
+    private int dueDay;
+    private int returnDay;
     private LoanStatus status;
     
     public enum LoanStatus {
@@ -28,21 +31,22 @@ public class Loan implements Serializable {
         this.loanId = loanId;
         this.userId = userId;
         this.documentId = documentId;
-        this.loanDate = loanDate;
-        this.dueDate = dueDate;
+        this.loanDay = EpochDay.of(loanDate);
+        this.dueDay = EpochDay.of(dueDate);
+        this.returnDay = EpochDay.NONE;
         this.status = LoanStatus.ACTIVE;
     }
     
     public void returnDocument() {
-        this.returnDate = LocalDate.now();
+        this.returnDay = EpochDay.today();
         this.status = LoanStatus.RETURNED;
     }
     
     public boolean isOverdue() {
-        if (status == LoanStatus.RETURNED) {
+        if (status == LoanStatus.RETURNED || dueDay == EpochDay.NONE) {
             return false;
         }
-        return LocalDate.now().isAfter(dueDate);
+        return EpochDay.today() > dueDay;
     }
     
     public void updateStatus() {
@@ -77,27 +81,34 @@ public class Loan implements Serializable {
     }
     
     public LocalDate getLoanDate() {
-        return loanDate;
+        return EpochDay.toLocalDate(loanDay);
     }
     
     public void setLoanDate(LocalDate loanDate) {
-        this.loanDate = loanDate;
+        this.loanDay = EpochDay.of(loanDate);
     }
     
     public LocalDate getDueDate() {
-        return dueDate;
+        return EpochDay.toLocalDate(dueDay);
     }
     
     public void setDueDate(LocalDate dueDate) {
-        this.dueDate = dueDate;
+        this.dueDay = EpochDay.of(dueDate);
     }
     
     public LocalDate getReturnDate() {
-        return returnDate;
+        return EpochDay.toLocalDate(returnDay);
     }
     
     public void setReturnDate(LocalDate returnDate) {
-        this.returnDate = returnDate;
+        this.returnDay = EpochDay.of(returnDate);
+    }
+    
+    /**
+     * Due date as an epoch day, or EpochDay.NONE if unset
+     */
+    public int getDueEpochDay() {
+        return dueDay;
     }
     
     public LoanStatus getStatus() {
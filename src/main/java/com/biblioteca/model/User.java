@@ -1,16 +1,23 @@
 package com.biblioteca.model;
 
+import com.biblioteca.util.EpochDay;
+
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Represents a library user.
+ * Current loans are kept in an insertion-ordered set, so adding, removing and
+ * counting them take constant time and reading them never copies.
  */
 public class User implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     
     private String userId;
     private String name;
@@ -18,7 +25,8 @@ public class User implements Serializable {
     private String phone;
     private LocalDate registrationDate;
     private UserType userType;
-    private List<String> currentLoans;
+    private final Set<String> currentLoans;
+    private final Set<String> currentLoansView;
     
     public enum UserType {
         STUDENT(5),
@@ -41,9 +49,10 @@ public class User implements Serializable {
         this.name = name;
         this.email = email;
         this.phone = phone;
-        this.registrationDate = LocalDate.now();
+        this.registrationDate = EpochDay.currentDate();
         this.userType = userType;
-        this.currentLoans = new ArrayList<>();
+        this.currentLoans = new LinkedHashSet<>();
+        this.currentLoansView = Collections.unmodifiableSet(currentLoans);
     }
     
     public boolean canBorrow() {
@@ -58,6 +67,34 @@ public class User implements Serializable {
         currentLoans.remove(documentId);
     }
     
+    /**
+     * Check whether the user currently has a document on loan
+     */
+    public boolean hasLoan(String documentId) {
+        return currentLoans.contains(documentId);
+    }
+    
+    /**
+     * Number of documents currently on loan
+     */
+    public int getLoanCount() {
+        return currentLoans.size();
+    }
+    
+    /**
+     * Number of further documents the user may borrow
+     */
+    public int getRemainingLoans() {
+        return Math.max(0, userType.getMaxLoans() - currentLoans.size());
+    }
+    
+    /**
+     * Visit the documents currently on loan, in the order they were borrowed
+     */
+    public void forEachLoan(Consumer<String> action) {
+        currentLoans.forEach(action);
+    }
+    
     // Getters and Setters
     public String getUserId() {
         return userId;
@@ -107,12 +144,18 @@ public class User implements Serializable {
         this.userType = userType;
     }
     
-    public List<String> getCurrentLoans() {
-        return new ArrayList<>(currentLoans);
+    /**
+     * Unmodifiable live view of the documents currently on loan
+     */
+    public Set<String> getCurrentLoans() {
+        return currentLoansView;
     }
     
-    public void setCurrentLoans(List<String> currentLoans) {
-        this.currentLoans = new ArrayList<>(currentLoans);
+    public void setCurrentLoans(Collection<String> currentLoans) {
+        // Copy first: the argument may be this user's own live view
+        Set<String> loans = new LinkedHashSet<>(currentLoans);
+        this.currentLoans.clear();
+        this.currentLoans.addAll(loans);
     }
     
     @Override
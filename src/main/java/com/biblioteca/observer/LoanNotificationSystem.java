@@ -3,6 +3,7 @@ package com.biblioteca.observer;
 import com.biblioteca.util.LibraryLogger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Notification system for loan events.
@@ -62,6 +63,30 @@ public class LoanNotificationSystem implements Subject {
         notifyObservers(message);
     }
     
+    /**
+     * Notify once about several loans created together
+     */
+    public void notifyLoansCreated(String userId, List<String> documentIds) {
+        String message = String.format("%d new loans created - User: %s, Documents: %s",
+                                      documentIds.size(), userId, String.join(", ", documentIds));
+        notifyObservers(message);
+    }
+    
+    /**
+     * Notify once about several documents returned together, grouped by user
+     */
+    public void notifyLoansReturned(Map<String, List<String>> documentIdsByUser) {
+        StringBuilder message = new StringBuilder();
+        int count = 0;
+        for (Map.Entry<String, List<String>> entry : documentIdsByUser.entrySet()) {
+            message.append(count == 0 ? "" : "; ")
+                   .append("User: ").append(entry.getKey())
+                   .append(", Documents: ").append(String.join(", ", entry.getValue()));
+            count += entry.getValue().size();
+        }
+        notifyObservers(count + " documents returned - " + message);
+    }
+    
     /**
      * Notify about overdue loan
      */
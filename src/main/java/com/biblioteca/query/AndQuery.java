@@ -0,0 +1,122 @@
+package com.biblioteca.query;
+
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.model.Document;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Query matching the documents all of its operands match.
+ * Indexed operands are intersected cheapest-first; the others are left as
+ * residual predicates to be checked on the surviving candidates only.
+ */
+public class AndQuery extends QueryNode {
+    
+    private final List<QueryNode> operands;
+    
+    public AndQuery(List<QueryNode> operands) {
+        this.operands = new ArrayList<>(operands);
+    }
+    
+    public List<QueryNode> getOperands() {
+        return new ArrayList<>(operands);
+    }
+    
+    @Override
+    public boolean isIndexed() {
+        return operands.stream().allMatch(QueryNode::isIndexed);
+    }
+    
+    /**
+     * Whether at least one operand can narrow the candidates from an index
+     */
+    public boolean hasIndexedOperand() {
+        return operands.stream().anyMatch(QueryNode::isIndexed);
+    }
+    
+    @Override
+    public int estimate(QueryContext context) {
+        int smallest = context.size();
+        for (QueryNode operand : operands) {
+            if (operand.isIndexed()) {
+                smallest = Math.min(smallest, operand.estimate(context));
+            }
+        }
+        return smallest;
+    }
+    
+    @Override
+    public CompressedBitmap evaluate(QueryContext context) {
+        return evaluateIndexed(context, new ArrayList<>());
+    }
+    
+    /**
+     * Intersect the indexed operands, cheapest first, recording each step in plan.
+     * Negated operands are subtracted after the positive ones have narrowed the set.
+     */
+    public CompressedBitmap evaluateIndexed(QueryContext context, List<String> plan) {
+        List<QueryNode> positive = new ArrayList<>();
+        List<NotQuery> negative = new ArrayList<>();
+        for (QueryNode operand : operands) {
+            if (!operand.isIndexed()) {
+                continue;
+            }
+            if (operand instanceof NotQuery) {
+                negative.add((NotQuery) operand);
+            } else {
+                positive.add(operand);
+            }
+        }
+        positive.sort(Comparator.comparingInt(operand -> operand.estimate(context)));
+        
+        CompressedBitmap candidates = null;
+        for (QueryNode operand : positive) {
+            CompressedBitmap matches = operand.evaluate(context);
+            candidates = candidates == null ? matches : candidates.and(matches);
+            plan.add(operand.accessPath() + " " + operand + " -> " + candidates.cardinality() + " candidates");
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+        if (candidates == null) {
+            candidates = context.all();
+        }
+        for (NotQuery operand : negative) {
+            candidates = candidates.andNot(operand.getOperand().evaluate(context));
+            plan.add(operand.accessPath() + " " + operand + " -> " + candidates.cardinality() + " candidates");
+        }
+        return candidates;
+    }
+    
+    /**
+     * Operands that cannot be answered from an index
+     */
+    public List<QueryNode> residualOperands() {
+        List<QueryNode> residual = new ArrayList<>();
+        for (QueryNode operand : operands) {
+            if (!operand.isIndexed()) {
+                residual.add(operand);
+            }
+        }
+        return residual;
+    }
+    
+    @Override
+    public boolean matches(Document document) {
+        for (QueryNode operand : operands) {
+            if (!operand.matches(document)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        operands.forEach(operand -> parts.add(operand.toString()));
+        return "(" + String.join(" AND ", parts) + ")";
+    }
+}
@@ -0,0 +1,50 @@
+package com.biblioteca.query;
+
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.model.Document;
+
+/**
+ * Query matching the documents its operand does not match.
+ */
+public class NotQuery extends QueryNode {
+    
+    private final QueryNode operand;
+    
+    public NotQuery(QueryNode operand) {
+        this.operand = operand;
+    }
+    
+    public QueryNode getOperand() {
+        return operand;
+    }
+    
+    @Override
+    public boolean isIndexed() {
+        return operand.isIndexed();
+    }
+    
+    @Override
+    public int estimate(QueryContext context) {
+        return context.size() - operand.estimate(context);
+    }
+    
+    @Override
+    public CompressedBitmap evaluate(QueryContext context) {
+        return context.all().andNot(operand.evaluate(context));
+    }
+    
+    @Override
+    public boolean matches(Document document) {
+        return !operand.matches(document);
+    }
+    
+    @Override
+    public String accessPath() {
+        return operand.accessPath();
+    }
+    
+    @Override
+    public String toString() {
+        return "NOT " + operand;
+    }
+}
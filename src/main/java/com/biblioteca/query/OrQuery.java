@@ -0,0 +1,63 @@
+package com.biblioteca.query;
+
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.model.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query matching the documents any of its operands match.
+ */
+public class OrQuery extends QueryNode {
+    
+    private final List<QueryNode> operands;
+    
+    public OrQuery(List<QueryNode> operands) {
+        this.operands = new ArrayList<>(operands);
+    }
+    
+    public List<QueryNode> getOperands() {
+        return new ArrayList<>(operands);
+    }
+    
+    @Override
+    public boolean isIndexed() {
+        return operands.stream().allMatch(QueryNode::isIndexed);
+    }
+    
+    @Override
+    public int estimate(QueryContext context) {
+        long total = 0;
+        for (QueryNode operand : operands) {
+            total += operand.estimate(context);
+        }
+        return (int) Math.min(total, context.size());
+    }
+    
+    @Override
+    public CompressedBitmap evaluate(QueryContext context) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (QueryNode operand : operands) {
+            result = result.or(operand.evaluate(context));
+        }
+        return result;
+    }
+    
+    @Override
+    public boolean matches(Document document) {
+        for (QueryNode operand : operands) {
+            if (operand.matches(document)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        operands.forEach(operand -> parts.add(operand.toString()));
+        return "(" + String.join(" OR ", parts) + ")";
+    }
+}
@@ -0,0 +1,97 @@
+package com.biblioteca.query;
+
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.index.DateRangeIndex;
+import com.biblioteca.index.InvertedIndex;
+import com.biblioteca.iterator.DocumentCollection;
+import com.biblioteca.iterator.DocumentFilter;
+import com.biblioteca.model.Document;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Access to the indexes a query is evaluated against.
+ * Every index answer is expressed as a bitmap of positions in the collection.
+ */
+public class QueryContext {
+    
+    private final DocumentCollection collection;
+    private final InvertedIndex invertedIndex;
+    private final DateRangeIndex dateRangeIndex;
+    
+    public QueryContext(DocumentCollection collection, InvertedIndex invertedIndex,
+                        DateRangeIndex dateRangeIndex) {
+        this.collection = collection;
+        this.invertedIndex = invertedIndex;
+        this.dateRangeIndex = dateRangeIndex;
+    }
+    
+    public int size() {
+        return collection.size();
+    }
+    
+    public CompressedBitmap all() {
+        return CompressedBitmap.range(0, collection.size());
+    }
+    
+    /**
+     * Positions of the documents containing a token in a text field
+     */
+    public CompressedBitmap postings(InvertedIndex.Field field, String token) {
+        return collection.positionsOf(invertedIndex.postings(field, token).keySet());
+    }
+    
+    /**
+     * Length of the posting list of a token in a text field
+     */
+    public int documentFrequency(InvertedIndex.Field field, String token) {
+        return invertedIndex.documentFrequency(field, token);
+    }
+    
+    /**
+     * Positions of the documents published between two dates, both inclusive;
+     * a null bound leaves that side of the range open
+     */
+    public CompressedBitmap publishedBetween(LocalDate from, LocalDate to) {
+        return collection.positionsOf(dateRangeIndex.range(from, to));
+    }
+    
+    /**
+     * Number of documents published between two dates, both inclusive;
+     * a null bound leaves that side of the range open
+     */
+    public int countPublishedBetween(LocalDate from, LocalDate to) {
+        return dateRangeIndex.count(from, to);
+    }
+    
+    /**
+     * Positions selected by the indexed criteria of a filter
+     */
+    public CompressedBitmap positions(DocumentFilter filter) {
+        return collection.positionsOf(filter);
+    }
+    
+    /**
+     * Positions of the documents satisfying a predicate, found by a full scan
+     */
+    public CompressedBitmap scan(Predicate<Document> predicate) {
+        List<Document> documents = collection.getAll();
+        CompressedBitmap positions = new CompressedBitmap();
+        for (int i = 0; i < documents.size(); i++) {
+            if (predicate.test(documents.get(i))) {
+                positions.add(i);
+            }
+        }
+        return positions;
+    }
+    
+    public int count(DocumentFilter filter) {
+        return collection.count(filter);
+    }
+    
+    public List<Document> documentsAt(CompressedBitmap positions) {
+        return collection.documentsAt(positions);
+    }
+}
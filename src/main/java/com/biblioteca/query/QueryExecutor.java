@@ -0,0 +1,77 @@
+package com.biblioteca.query;
+
+import com.biblioteca.exception.InvalidInputException;
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.index.DateRangeIndex;
+import com.biblioteca.index.InvertedIndex;
+import com.biblioteca.iterator.DocumentCollection;
+import com.biblioteca.model.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles queries into an execution plan and runs it.
+ * Index-answerable parts become posting-list and bitmap operations; only
+ * predicates without an index are checked by scanning the remaining candidates.
+ */
+public class QueryExecutor {
+    
+    private final DocumentCollection collection;
+    private final QueryContext context;
+    
+    public QueryExecutor(DocumentCollection collection, InvertedIndex invertedIndex,
+                         DateRangeIndex dateRangeIndex) {
+        this.collection = collection;
+        this.context = new QueryContext(collection, invertedIndex, dateRangeIndex);
+    }
+    
+    /**
+     * Parse and execute a query
+     *
+     * @throws InvalidInputException if the query is malformed
+     */
+    public QueryResult execute(String query) throws InvalidInputException {
+        QueryNode root = QueryParser.parse(query);
+        List<String> plan = new ArrayList<>();
+        plan.add("Query: " + root);
+        
+        List<Document> candidates;
+        List<QueryNode> residual = new ArrayList<>();
+        // Evaluate against one consistent state of the collection
+        synchronized (collection) {
+            CompressedBitmap positions;
+            if (root.isIndexed()) {
+                positions = root instanceof AndQuery
+                    ? ((AndQuery) root).evaluateIndexed(context, plan)
+                    : evaluateLeaf(root, plan);
+            } else if (root instanceof AndQuery && ((AndQuery) root).hasIndexedOperand()) {
+                positions = ((AndQuery) root).evaluateIndexed(context, plan);
+                residual.addAll(((AndQuery) root).residualOperands());
+            } else {
+                positions = context.all();
+                residual.add(root);
+            }
+            candidates = context.documentsAt(positions);
+        }
+        
+        List<Document> results = candidates;
+        for (QueryNode predicate : residual) {
+            List<Document> matching = new ArrayList<>();
+            for (Document document : results) {
+                if (predicate.matches(document)) {
+                    matching.add(document);
+                }
+            }
+            plan.add("SCAN " + predicate + " over " + results.size() + " candidates -> " + matching.size() + " matches");
+            results = matching;
+        }
+        return new QueryResult(results, plan);
+    }
+    
+    private CompressedBitmap evaluateLeaf(QueryNode node, List<String> plan) {
+        CompressedBitmap positions = node.evaluate(context);
+        plan.add(node.accessPath() + " " + node + " -> " + positions.cardinality() + " matches");
+        return positions;
+    }
+}
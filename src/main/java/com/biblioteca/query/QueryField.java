@@ -0,0 +1,39 @@
+package com.biblioteca.query;
+
+/**
+ * Fields that can be referenced in a query.
+ */
+public enum QueryField {
+    TITLE(true, false),
+    AUTHOR(true, false),
+    ID(true, false),
+    TYPE(true, false),
+    AVAILABLE(true, false),
+    GENRE(false, false),
+    PUBLISHER(false, false),
+    ISBN(false, false),
+    YEAR(false, true),
+    PAGES(false, true);
+    
+    private final boolean indexed;
+    private final boolean numeric;
+    
+    QueryField(boolean indexed, boolean numeric) {
+        this.indexed = indexed;
+        this.numeric = numeric;
+    }
+    
+    /**
+     * Whether equality on this field is answered from an index
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+    
+    /**
+     * Whether this field supports range comparisons
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+}
@@ -0,0 +1,39 @@
+package com.biblioteca.query;
+
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.model.Document;
+
+/**
+ * Node of a parsed query.
+ * Indexed nodes are evaluated to a bitmap of document positions; every node
+ * can also be checked against a single document when scanning is required.
+ */
+public abstract class QueryNode {
+    
+    /**
+     * Whether this node can be answered entirely from indexes
+     */
+    public abstract boolean isIndexed();
+    
+    /**
+     * Estimated number of matching documents, used to order intersections
+     */
+    public abstract int estimate(QueryContext context);
+    
+    /**
+     * Evaluate this node from the indexes; only valid when isIndexed() is true
+     */
+    public abstract CompressedBitmap evaluate(QueryContext context);
+    
+    /**
+     * Check whether a single document matches this node
+     */
+    public abstract boolean matches(Document document);
+    
+    /**
+     * Name of the access path used for this node in plan explanations
+     */
+    public String accessPath() {
+        return isIndexed() ? "INDEX" : "SCAN";
+    }
+}
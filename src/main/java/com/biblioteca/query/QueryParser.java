@@ -0,0 +1,215 @@
+package com.biblioteca.query;
+
+import com.biblioteca.exception.InvalidInputException;
+import com.biblioteca.model.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parser for the boolean, fielded query language.
+ *
+ * <pre>
+ * query   := or
+ * or      := and ("OR" and)*
+ * and     := unary (["AND"] unary)*
+ * unary   := "NOT" unary | "(" or ")" | term
+ * term    := field ":" value | field ("=" | "&gt;" | "&gt;=" | "&lt;" | "&lt;=") number | word
+ * </pre>
+ *
+ * Operators are upper case; values may be quoted to include spaces, and a bare
+ * word matches title, author or id. Example:
+ * {@code author:garcia AND type:BOOK AND year>=2010 NOT available:false}
+ */
+public class QueryParser {
+    
+    private static final Pattern TERM_PATTERN = Pattern.compile("^([A-Za-z]+)(>=|<=|>|<|:|=)(.*)$");
+    
+    private final List<String> tokens;
+    private int position;
+    
+    private QueryParser(List<String> tokens) {
+        this.tokens = tokens;
+        this.position = 0;
+    }
+    
+    /**
+     * Parse a query string into a query tree
+     *
+     * @throws InvalidInputException if the query is empty or malformed
+     */
+    public static QueryNode parse(String query) throws InvalidInputException {
+        if (query == null || query.trim().isEmpty()) {
+            throw new InvalidInputException("Query cannot be empty");
+        }
+        QueryParser parser = new QueryParser(tokenize(query));
+        QueryNode node = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw new InvalidInputException("Unexpected token in query: " + parser.tokens.get(parser.position));
+        }
+        return node;
+    }
+    
+    private QueryNode parseOr() throws InvalidInputException {
+        List<QueryNode> operands = new ArrayList<>();
+        operands.add(parseAnd());
+        while (accept("OR")) {
+            operands.add(parseAnd());
+        }
+        return operands.size() == 1 ? operands.get(0) : new OrQuery(operands);
+    }
+    
+    private QueryNode parseAnd() throws InvalidInputException {
+        List<QueryNode> operands = new ArrayList<>();
+        operands.add(parseUnary());
+        while (position < tokens.size() && !peek("OR") && !peek(")")) {
+            accept("AND");
+            operands.add(parseUnary());
+        }
+        return operands.size() == 1 ? operands.get(0) : new AndQuery(operands);
+    }
+    
+    private QueryNode parseUnary() throws InvalidInputException {
+        if (position >= tokens.size()) {
+            throw new InvalidInputException("Unexpected end of query");
+        }
+        if (accept("NOT")) {
+            return new NotQuery(parseUnary());
+        }
+        if (accept("(")) {
+            QueryNode node = parseOr();
+            if (!accept(")")) {
+                throw new InvalidInputException("Missing closing parenthesis in query");
+            }
+            return node;
+        }
+        String token = tokens.get(position++);
+        if (token.equals(")") || token.equals("AND") || token.equals("OR")) {
+            throw new InvalidInputException("Unexpected token in query: " + token);
+        }
+        return parseTerm(token);
+    }
+    
+    private QueryNode parseTerm(String token) throws InvalidInputException {
+        Matcher matcher = TERM_PATTERN.matcher(token);
+        if (!matcher.matches()) {
+            String word = unquote(token);
+            List<QueryNode> fields = new ArrayList<>();
+            fields.add(new TermQuery(QueryField.TITLE, word));
+            fields.add(new TermQuery(QueryField.AUTHOR, word));
+            fields.add(new TermQuery(QueryField.ID, word));
+            return new OrQuery(fields);
+        }
+        
+        QueryField field;
+        try {
+            field = QueryField.valueOf(matcher.group(1).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("Unknown query field: " + matcher.group(1));
+        }
+        String operator = matcher.group(2);
+        String value = unquote(matcher.group(3));
+        if (value.isEmpty()) {
+            throw new InvalidInputException("Missing value for field: " + matcher.group(1));
+        }
+        
+        if (field.isNumeric()) {
+            try {
+                return new RangeQuery(field, operatorFor(operator), Integer.parseInt(value));
+            } catch (NumberFormatException e) {
+                throw new InvalidInputException("Invalid number for field " + matcher.group(1) + ": " + value);
+            }
+        }
+        if (!operator.equals(":") && !operator.equals("=")) {
+            throw new InvalidInputException("Comparison not supported for field: " + matcher.group(1));
+        }
+        validateValue(field, value);
+        return new TermQuery(field, value);
+    }
+    
+    private static void validateValue(QueryField field, String value) throws InvalidInputException {
+        if (field == QueryField.TYPE) {
+            try {
+                Document.DocumentType.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException("Unknown document type: " + value);
+            }
+        } else if (field == QueryField.AVAILABLE
+                && !value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new InvalidInputException("Availability must be true or false");
+        }
+    }
+    
+    private static RangeQuery.Operator operatorFor(String symbol) {
+        switch (symbol) {
+            case ">":
+                return RangeQuery.Operator.GT;
+            case ">=":
+                return RangeQuery.Operator.GE;
+            case "<":
+                return RangeQuery.Operator.LT;
+            case "<=":
+                return RangeQuery.Operator.LE;
+            default:
+                return RangeQuery.Operator.EQ;
+        }
+    }
+    
+    private boolean peek(String expected) {
+        return position < tokens.size() && tokens.get(position).equals(expected);
+    }
+    
+    private boolean accept(String expected) {
+        if (peek(expected)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+    
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+    
+    /**
+     * Split a query into parentheses and whitespace-separated terms,
+     * keeping quoted sections together
+     */
+    private static List<String> tokenize(String query) throws InvalidInputException {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                current.append(c);
+            } else if (quoted) {
+                current.append(c);
+            } else if (Character.isWhitespace(c) || c == '(' || c == ')') {
+                if (current.length() > 0) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+                if (c == '(' || c == ')') {
+                    tokens.add(String.valueOf(c));
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new InvalidInputException("Unterminated quote in query");
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,39 @@
+package com.biblioteca.query;
+
+import com.biblioteca.model.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Documents matched by a query together with the plan used to find them.
+ */
+public class QueryResult {
+    
+    private final List<Document> documents;
+    private final List<String> plan;
+    
+    public QueryResult(List<Document> documents, List<String> plan) {
+        this.documents = documents;
+        this.plan = plan;
+    }
+    
+    public List<Document> getDocuments() {
+        return documents;
+    }
+    
+    public List<String> getPlan() {
+        return new ArrayList<>(plan);
+    }
+    
+    /**
+     * Human-readable description of the steps used to execute the query
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < plan.size(); i++) {
+            sb.append(i == 0 ? "" : "  " + i + ". ").append(plan.get(i)).append("\n");
+        }
+        return sb.toString();
+    }
+}
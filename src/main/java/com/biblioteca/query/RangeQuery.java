@@ -0,0 +1,134 @@
+package com.biblioteca.query;
+
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Document;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Locale;
+
+/**
+ * Query comparing a numeric field (publication year, pages) with a value.
+ * Year comparisons are answered from the publication date index.
+ */
+public class RangeQuery extends QueryNode {
+    
+    /**
+     * Supported comparison operators
+     */
+    public enum Operator {
+        EQ("="), GT(">"), GE(">="), LT("<"), LE("<=");
+        
+        private final String symbol;
+        
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+        
+        public String getSymbol() {
+            return symbol;
+        }
+        
+        public boolean test(int actual, int expected) {
+            switch (this) {
+                case GT:
+                    return actual > expected;
+                case GE:
+                    return actual >= expected;
+                case LT:
+                    return actual < expected;
+                case LE:
+                    return actual <= expected;
+                default:
+                    return actual == expected;
+            }
+        }
+    }
+    
+    private final QueryField field;
+    private final Operator operator;
+    private final int value;
+    
+    public RangeQuery(QueryField field, Operator operator, int value) {
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+    }
+    
+    public QueryField getField() {
+        return field;
+    }
+    
+    public Operator getOperator() {
+        return operator;
+    }
+    
+    public int getValue() {
+        return value;
+    }
+    
+    @Override
+    public boolean isIndexed() {
+        return field == QueryField.YEAR;
+    }
+    
+    /**
+     * Year ranges are counted from the date index, so a selective range can lead an intersection
+     */
+    @Override
+    public int estimate(QueryContext context) {
+        if (field != QueryField.YEAR) {
+            return context.size();
+        }
+        LocalDate[] bounds = yearBounds();
+        return bounds == null ? 0 : context.countPublishedBetween(bounds[0], bounds[1]);
+    }
+    
+    @Override
+    public CompressedBitmap evaluate(QueryContext context) {
+        if (field != QueryField.YEAR) {
+            return context.scan(this::matches);
+        }
+        LocalDate[] bounds = yearBounds();
+        return bounds == null ? new CompressedBitmap() : context.publishedBetween(bounds[0], bounds[1]);
+    }
+    
+    @Override
+    public String accessPath() {
+        return field == QueryField.YEAR ? "RANGE" : super.accessPath();
+    }
+    
+    @Override
+    public boolean matches(Document document) {
+        if (field == QueryField.YEAR) {
+            return document.getPublicationDate() != null
+                && operator.test(document.getPublicationDate().getYear(), value);
+        }
+        return document instanceof Book && operator.test(((Book) document).getPages(), value);
+    }
+    
+    @Override
+    public String toString() {
+        return field.name().toLowerCase(Locale.ROOT) + operator.getSymbol() + value;
+    }
+    
+    /**
+     * First and last day of the years this year comparison accepts, null for an
+     * open side, or null altogether if it accepts no representable year
+     */
+    private LocalDate[] yearBounds() {
+        // Inclusive bounds in years, widened to long so value + 1 cannot overflow
+        long from = operator == Operator.GT ? value + 1L
+            : operator == Operator.GE || operator == Operator.EQ ? value : Long.MIN_VALUE;
+        long to = operator == Operator.LT ? value - 1L
+            : operator == Operator.LE || operator == Operator.EQ ? value : Long.MAX_VALUE;
+        if (from > Year.MAX_VALUE || to < Year.MIN_VALUE || from > to) {
+            return null;
+        }
+        return new LocalDate[] {
+            from > Year.MIN_VALUE ? LocalDate.of((int) from, 1, 1) : null,
+            to < Year.MAX_VALUE ? LocalDate.of((int) to, 12, 31) : null
+        };
+    }
+}
@@ -0,0 +1,166 @@
+package com.biblioteca.query;
+
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.index.InvertedIndex;
+import com.biblioteca.iterator.DocumentFilter;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Document;
+import com.biblioteca.model.Magazine;
+import com.biblioteca.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Query matching documents whose field equals (or, for text, contains) a value.
+ * Text values are tokenised once; a value without any token matches nothing.
+ */
+public class TermQuery extends QueryNode {
+    
+    private final QueryField field;
+    private final String value;
+    private final List<String> tokens;
+    
+    public TermQuery(QueryField field, String value) {
+        this.field = field;
+        this.value = value;
+        if (field == QueryField.ID) {
+            String id = TextNormalizer.normalize(value);
+            this.tokens = id.isEmpty() ? List.of() : List.of(id);
+        } else {
+            this.tokens = TextNormalizer.tokenize(value);
+        }
+    }
+    
+    public QueryField getField() {
+        return field;
+    }
+    
+    public String getValue() {
+        return value;
+    }
+    
+    @Override
+    public boolean isIndexed() {
+        return field.isIndexed();
+    }
+    
+    @Override
+    public int estimate(QueryContext context) {
+        switch (field) {
+            case TITLE:
+            case AUTHOR:
+            case ID:
+                int smallest = Integer.MAX_VALUE;
+                for (String token : tokens) {
+                    smallest = Math.min(smallest, context.documentFrequency(textField(), token));
+                }
+                return tokens.isEmpty() ? 0 : smallest;
+            case TYPE:
+            case AVAILABLE:
+                return context.count(filter());
+            default:
+                return context.size();
+        }
+    }
+    
+    @Override
+    public CompressedBitmap evaluate(QueryContext context) {
+        if (!field.isIndexed()) {
+            return context.scan(this::matches);
+        }
+        if (field == QueryField.TYPE || field == QueryField.AVAILABLE) {
+            return context.positions(filter());
+        }
+        if (tokens.isEmpty()) {
+            return new CompressedBitmap();
+        }
+        // Intersect the posting lists of every token, shortest first
+        List<String> ordered = new ArrayList<>(tokens);
+        ordered.sort(Comparator.comparingInt(token -> context.documentFrequency(textField(), token)));
+        CompressedBitmap result = context.postings(textField(), ordered.get(0));
+        for (int i = 1; i < ordered.size() && !result.isEmpty(); i++) {
+            result = result.and(context.postings(textField(), ordered.get(i)));
+        }
+        return result;
+    }
+    
+    @Override
+    public boolean matches(Document document) {
+        switch (field) {
+            case TITLE:
+                return containsTokens(document.getSearchTitle());
+            case AUTHOR:
+                return containsTokens(document.getSearchAuthor());
+            case ID:
+                return !tokens.isEmpty() && document.getSearchId().equals(tokens.get(0));
+            case TYPE:
+                return document.getType().name().equalsIgnoreCase(value);
+            case AVAILABLE:
+                return document.isAvailable() == Boolean.parseBoolean(value);
+            case GENRE:
+                return document instanceof Book && sameText(((Book) document).getGenre());
+            case PUBLISHER:
+                return document instanceof Magazine && sameText(((Magazine) document).getPublisher());
+            case ISBN:
+                return document instanceof Book && sameText(((Book) document).getIsbn());
+            default:
+                return false;
+        }
+    }
+    
+    @Override
+    public String accessPath() {
+        if (field == QueryField.TYPE || field == QueryField.AVAILABLE) {
+            return "BITMAP";
+        }
+        return super.accessPath();
+    }
+    
+    @Override
+    public String toString() {
+        return field.name().toLowerCase(Locale.ROOT) + ":" + value;
+    }
+    
+    /**
+     * Whether normalised text holds every token as a whole word, checked in place
+     */
+    private boolean containsTokens(String normalizedText) {
+        if (tokens.isEmpty()) {
+            return false;
+        }
+        for (String token : tokens) {
+            if (!TextNormalizer.containsToken(normalizedText, token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean sameText(String text) {
+        return TextNormalizer.normalize(text).equals(TextNormalizer.normalize(value));
+    }
+    
+    private InvertedIndex.Field textField() {
+        switch (field) {
+            case TITLE:
+                return InvertedIndex.Field.TITLE;
+            case AUTHOR:
+                return InvertedIndex.Field.AUTHOR;
+            default:
+                return InvertedIndex.Field.ID;
+        }
+    }
+    
+    private DocumentFilter filter() {
+        DocumentFilter.Builder builder = new DocumentFilter.Builder();
+        if (field == QueryField.TYPE) {
+            builder.type(Document.DocumentType.valueOf(value.toUpperCase(Locale.ROOT)));
+        } else {
+            builder.available(Boolean.parseBoolean(value));
+        }
+        return builder.build();
+    }
+}
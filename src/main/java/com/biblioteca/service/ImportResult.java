@@ -0,0 +1,80 @@
+package com.biblioteca.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcome of a bulk document import.
+ */
+public class ImportResult {
+    
+    private int imported;
+    private int duplicates;
+    private final Map<Integer, String> rejected;
+    private final Map<Integer, String> sharedIsbns;
+    
+    ImportResult() {
+        this.rejected = new TreeMap<>();
+        this.sharedIsbns = new TreeMap<>();
+    }
+    
+    void addImported(int count) {
+        imported += count;
+    }
+    
+    void addDuplicate(int lineNumber, String reason) {
+        duplicates++;
+        rejected.put(lineNumber, reason);
+    }
+    
+    void addInvalid(int lineNumber, String reason) {
+        rejected.put(lineNumber, reason);
+    }
+    
+    void addSharedIsbn(int lineNumber, String note) {
+        sharedIsbns.put(lineNumber, note);
+    }
+    
+    /**
+     * Number of documents added to the catalogue
+     */
+    public int getImported() {
+        return imported;
+    }
+    
+    /**
+     * Number of records skipped because their ID was already present
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+    
+    /**
+     * Number of records skipped because they were invalid
+     */
+    public int getInvalid() {
+        return rejected.size() - duplicates;
+    }
+    
+    /**
+     * Reasons for every skipped record, by line number
+     */
+    public Map<Integer, String> getRejected() {
+        return Collections.unmodifiableMap(rejected);
+    }
+    
+    /**
+     * Imported books whose ISBN was already in the catalogue or earlier in the file,
+     * by line number; they were added as further copies
+     */
+    public Map<Integer, String> getSharedIsbns() {
+        return Collections.unmodifiableMap(sharedIsbns);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("ImportResult[imported=%d, duplicates=%d, invalid=%d, sharedIsbns=%d]",
+            imported, duplicates, getInvalid(), sharedIsbns.size());
+    }
+}
@@ -4,17 +4,40 @@ import com.biblioteca.exception.*;
 import com.biblioteca.factory.DocumentCreationParams;
 import com.biblioteca.factory.DocumentFactory;
 import com.biblioteca.io.DataPersistence;
+import com.biblioteca.io.DocumentCsvReader;
+import com.biblioteca.index.DateRangeIndex;
+import com.biblioteca.index.FacetIndex;
+import com.biblioteca.index.IndexSegment;
+import com.biblioteca.index.FuzzyIndex;
+import com.biblioteca.index.InvertedIndex;
+import com.biblioteca.index.IsbnIndex;
 import com.biblioteca.iterator.DocumentCollection;
-import com.biblioteca.iterator.Iterator;
+import com.biblioteca.iterator.DocumentFilter;
 import com.biblioteca.model.*;
 import com.biblioteca.observer.LoanNotificationSystem;
+import com.biblioteca.query.QueryExecutor;
+import com.biblioteca.query.QueryResult;
+import com.biblioteca.strategy.AutocompleteService;
+import com.biblioteca.strategy.DateRangeSearchStrategy;
+import com.biblioteca.strategy.FuzzySearchStrategy;
+import com.biblioteca.strategy.IsbnSearchStrategy;
+import com.biblioteca.strategy.ParallelScanExecutor;
+import com.biblioteca.strategy.RankedSearchStrategy;
 import com.biblioteca.strategy.SearchContext;
+import com.biblioteca.strategy.SearchPage;
+import com.biblioteca.strategy.SearchResultCache;
 import com.biblioteca.strategy.SearchStrategy;
+import com.biblioteca.util.EpochDay;
 import com.biblioteca.util.LibraryLogger;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Main service class for library operations.
@@ -22,11 +45,20 @@ import java.util.stream.Collectors;
  */
 public class LibraryService {
     
+    private static final int SEARCH_CACHE_SIZE = 256;
+    private static final int IMPORT_BATCH_SIZE = 8192;
+    
     private final DocumentCollection documentCollection;
     private final Map<String, User> users;
     private final Map<String, Loan> loans;
     private final DocumentFactory documentFactory;
     private final SearchContext searchContext;
+    private final AutocompleteService autocompleteService;
+    private final FuzzyIndex fuzzyIndex;
+    private final InvertedIndex invertedIndex;
+    private final DateRangeIndex dateRangeIndex;
+    private final IsbnIndex isbnIndex;
+    private final QueryExecutor queryExecutor;
     private final LoanNotificationSystem notificationSystem;
     private final DataPersistence dataPersistence;
     private final LibraryLogger logger;
@@ -39,6 +71,18 @@ public class LibraryService {
         this.loans = new HashMap<>();
         this.documentFactory = DocumentFactory.getInstance();
         this.searchContext = new SearchContext();
+        this.searchContext.setCache(new SearchResultCache(SEARCH_CACHE_SIZE, null));
+        this.autocompleteService = new AutocompleteService();
+        this.fuzzyIndex = new FuzzyIndex();
+        this.invertedIndex = new InvertedIndex();
+        this.dateRangeIndex = new DateRangeIndex();
+        this.isbnIndex = new IsbnIndex();
+        this.documentCollection.addIndex(autocompleteService);
+        this.documentCollection.addIndex(fuzzyIndex);
+        this.documentCollection.addIndex(invertedIndex);
+        this.documentCollection.addIndex(dateRangeIndex);
+        this.documentCollection.addIndex(isbnIndex);
+        this.queryExecutor = new QueryExecutor(documentCollection, invertedIndex, dateRangeIndex);
         this.notificationSystem = new LoanNotificationSystem();
         this.dataPersistence = dataPersistence;
         this.logger = LibraryLogger.getInstance();
@@ -50,9 +94,12 @@ public class LibraryService {
     // ==================== DOCUMENT OPERATIONS ====================
     
     /**
-     * Add a new document to the library
+     * Add a new document to the library.
+     * A book whose ISBN is already catalogued is added as a further copy.
+     *
+     * @return The books already in the catalogue with the same ISBN, empty if none
      */
-    public void addDocument(Document.DocumentType type, DocumentCreationParams params) 
+    public List<Book> addDocument(Document.DocumentType type, DocumentCreationParams params) 
             throws LibraryException {
         try {
             Document document = documentFactory.createDocument(type, params);
@@ -61,11 +108,18 @@ public class LibraryService {
             if (findDocumentById(document.getId()) != null) {
                 throw new LibraryException("Document with ID " + document.getId() + " already exists");
             }
+            List<Book> copies = document instanceof Book
+                ? isbnIndex.findAll(((Book) document).getIsbn()) : new ArrayList<>();
             
             documentCollection.add(document);
             logger.info("Added document: " + document.getId());
+            if (!copies.isEmpty()) {
+                logger.info("Document " + document.getId() + " shares its ISBN with " + copies.size()
+                            + " other copies");
+            }
             
             saveData();
+            return copies;
         } catch (Exception e) {
             logger.error("Failed to add document", e);
             throw ExceptionHandler.wrapException(e);
@@ -73,24 +127,113 @@ public class LibraryService {
     }
     
     /**
-     * Find document by ID
+     * Import documents from a CSV file in one batch.
+     * Records are read in chunks and validated in parallel through the document factory;
+     * records whose ID is already in the catalogue or earlier in the file are skipped.
+     * Books whose ISBN is already present are imported as further copies and reported.
+     * The accepted documents are added together and the data is saved once.
+     *
+     * @param csvFile File in the format read by DocumentCsvReader
+     * @return Counts of imported and skipped records, with the reason for each skipped line
+     *         and the lines that added another copy of an ISBN
      */
-    public Document findDocumentById(String id) {
-        Iterator<Document> iterator = documentCollection.createIterator();
-        while (iterator.hasNext()) {
-            Document doc = iterator.next();
-            if (doc.getId().equals(id)) {
-                return doc;
+    public ImportResult importDocuments(Path csvFile) throws LibraryException {
+        ImportResult result = new ImportResult();
+        List<Document> accepted = new ArrayList<>();
+        Set<String> seenIds = new HashSet<>();
+        Set<String> seenIsbns = new HashSet<>();
+        
+        try (DocumentCsvReader reader = DocumentCsvReader.open(csvFile)) {
+            List<DocumentCsvReader.Record> batch;
+            while (!(batch = reader.readBatch(IMPORT_BATCH_SIZE)).isEmpty()) {
+                Document[] created = createInParallel(batch, result);
+                for (int i = 0; i < created.length; i++) {
+                    Document document = created[i];
+                    if (document == null) {
+                        continue;
+                    }
+                    int line = batch.get(i).getLineNumber();
+                    if (seenIds.contains(document.getId()) || findDocumentById(document.getId()) != null) {
+                        result.addDuplicate(line, "Document with ID " + document.getId() + " already exists");
+                        continue;
+                    }
+                    String isbn = document instanceof Book ? IsbnIndex.normalize(((Book) document).getIsbn()) : null;
+                    if (isbn != null && (!seenIsbns.add(isbn) || isbnIndex.contains(isbn))) {
+                        result.addSharedIsbn(line, "Added as another copy of ISBN " + ((Book) document).getIsbn());
+                    }
+                    seenIds.add(document.getId());
+                    accepted.add(document);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read import file: " + csvFile, e);
+            throw new DataAccessException("Failed to read import file", e);
+        }
+        
+        if (!accepted.isEmpty()) {
+            documentCollection.addAll(accepted);
+            result.addImported(accepted.size());
+            saveData();
+        }
+        logger.info("Imported documents from " + csvFile + ": " + result);
+        return result;
+    }
+    
+    /**
+     * Create the documents of a batch in parallel; rejected records are reported and left null
+     */
+    private Document[] createInParallel(List<DocumentCsvReader.Record> batch, ImportResult result) {
+        Document[] created = new Document[batch.size()];
+        String[] errors = new String[batch.size()];
+        IntStream.range(0, batch.size()).parallel().forEach(i -> {
+            DocumentCsvReader.Record record = batch.get(i);
+            if (record.getError() != null) {
+                errors[i] = record.getError();
+                return;
+            }
+            try {
+                created[i] = documentFactory.createDocument(record.getType(), record.getParams());
+            } catch (InvalidDocumentException e) {
+                errors[i] = e.getMessage();
+            }
+        });
+        for (int i = 0; i < errors.length; i++) {
+            if (errors[i] != null) {
+                result.addInvalid(batch.get(i).getLineNumber(), errors[i]);
             }
         }
-        return null;
+        return created;
+    }
+    
+    /**
+     * Find document by ID
+     */
+    public Document findDocumentById(String id) {
+        return documentCollection.findById(id);
+    }
+    
+    /**
+     * Find a book by ISBN, accepting ISBN-10 or ISBN-13 with or without hyphens;
+     * the first copy added is returned when several share the ISBN
+     */
+    public Book findBookByIsbn(String isbn) {
+        return isbnIndex.find(isbn);
+    }
+    
+    /**
+     * Find every copy of a book by ISBN, in the order they were added
+     */
+    public List<Book> findBooksByIsbn(String isbn) {
+        return isbnIndex.findAll(isbn);
     }
     
     /**
      * Search documents using current search strategy
      */
     public List<Document> searchDocuments(String query) {
-        return searchContext.executeSearch(documentCollection.getAll(), query);
+        // Read the version first: results cached under it can only be conservative
+        long version = documentCollection.getVersion();
+        return searchContext.executeSearch(documentCollection.getAll(), query, version);
     }
     
     /**
@@ -98,7 +241,122 @@ public class LibraryService {
      */
     public List<Document> searchDocuments(String query, SearchStrategy strategy) {
         searchContext.setStrategy(strategy);
-        return searchContext.executeSearch(documentCollection.getAll(), query);
+        return searchDocuments(query);
+    }
+    
+    /**
+     * Search documents with specific strategy, passing each match to a callback as it is found
+     */
+    public void searchDocuments(String query, SearchStrategy strategy, Consumer<? super Document> callback) {
+        searchContext.setStrategy(strategy);
+        searchContext.executeSearch(documentCollection.getAll(), query, callback);
+    }
+    
+    /**
+     * Search documents with specific strategy, returning the page of results
+     * starting at the given offset
+     */
+    public SearchPage searchDocumentsPage(String query, SearchStrategy strategy, int offset, int limit)
+            throws InvalidInputException {
+        if (offset < 0 || limit <= 0) {
+            throw new InvalidInputException("Offset must not be negative and page size must be positive");
+        }
+        searchContext.setStrategy(strategy);
+        long version = documentCollection.getVersion();
+        return searchContext.executeSearchPage(documentCollection.getAll(), query, version, offset, limit);
+    }
+    
+    /**
+     * Search documents with specific strategy, returning the page following
+     * the one that issued the continuation token
+     */
+    public SearchPage searchDocumentsPage(String query, SearchStrategy strategy, String continuationToken,
+                                          int limit) throws InvalidInputException {
+        if (limit <= 0) {
+            throw new InvalidInputException("Page size must be positive");
+        }
+        searchContext.setStrategy(strategy);
+        long version = documentCollection.getVersion();
+        try {
+            return searchContext.executeSearchPage(documentCollection.getAll(), query, version,
+                                                   continuationToken, limit);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException(e.getMessage());
+        }
+    }
+    
+    /**
+     * Search documents with specific strategy, keeping only available ones
+     */
+    public List<Document> searchAvailableDocuments(String query, SearchStrategy strategy) {
+        DocumentFilter filter = new DocumentFilter.Builder().available(true).build();
+        return documentCollection.select(searchDocuments(query, strategy), filter);
+    }
+    
+    /**
+     * Get a typo-tolerant search strategy backed by the maintained fuzzy index
+     */
+    public SearchStrategy getFuzzySearchStrategy() {
+        return new FuzzySearchStrategy(fuzzyIndex);
+    }
+    
+    /**
+     * Get a relevance-ranked search strategy returning at most limit documents
+     * 
+     * @throws IllegalArgumentException if limit is not positive
+     */
+    public SearchStrategy getRankedSearchStrategy(int limit) {
+        return new RankedSearchStrategy(invertedIndex, limit);
+    }
+    
+    /**
+     * Get an ISBN search strategy backed by the maintained ISBN index
+     */
+    public SearchStrategy getIsbnSearchStrategy() {
+        return new IsbnSearchStrategy(isbnIndex);
+    }
+    
+    /**
+     * Get a publication date search strategy backed by the maintained date index
+     */
+    public SearchStrategy getDateRangeSearchStrategy() {
+        return new DateRangeSearchStrategy(dateRangeIndex);
+    }
+    
+    /**
+     * Get the most recently published documents, newest first
+     */
+    public List<Document> getLatestDocuments(int limit) {
+        return dateRangeIndex.latest(limit);
+    }
+    
+    /**
+     * Count the whole catalogue by type, genre, publisher and decade
+     */
+    public Map<FacetIndex.Facet, Map<String, Integer>> getFacetCounts() {
+        return documentCollection.facetCounts();
+    }
+    
+    /**
+     * Count search results by type, genre, publisher and decade
+     */
+    public Map<FacetIndex.Facet, Map<String, Integer>> getFacetCounts(List<Document> results) {
+        return documentCollection.facetCounts(results);
+    }
+    
+    /**
+     * Run a boolean, fielded query such as "author:garcia AND type:BOOK AND year>=2010".
+     * The result includes the plan showing which indexes were used.
+     */
+    public QueryResult executeQuery(String query) throws LibraryException {
+        return queryExecutor.execute(query);
+    }
+    
+    /**
+     * Suggest titles and author names completing a prefix
+     */
+    public List<String> autocomplete(String prefix, int limit) {
+        return autocompleteService.suggest(prefix, limit);
     }
     
     /**
@@ -112,9 +370,8 @@ public class LibraryService {
      * Get available documents
      */
     public List<Document> getAvailableDocuments() {
-        return documentCollection.getAll().stream()
-            .filter(Document::isAvailable)
-            .collect(Collectors.toList());
+        DocumentFilter filter = new DocumentFilter.Builder().available(true).build();
+        return scanDocuments(filter).collect(Collectors.toList());
     }
     
     /**
@@ -136,6 +393,15 @@ public class LibraryService {
         return true;
     }
     
+    /**
+     * Stream over the documents matching a filter, parallel for large catalogs
+     */
+    private Stream<Document> scanDocuments(DocumentFilter filter) {
+        return documentCollection.size() >= ParallelScanExecutor.getDefault().getParallelThreshold()
+            ? documentCollection.parallelStream(filter)
+            : documentCollection.stream(filter);
+    }
+    
     // ==================== USER OPERATIONS ====================
     
     /**
@@ -170,11 +436,13 @@ public class LibraryService {
     }
     
     // ==================== LOAN OPERATIONS ====================
+    // Loan operations synchronize on the service, so each request is validated
+    // and applied as one step even when several clients submit at once.
     
     /**
      * Create a new loan
      */
-    public Loan createLoan(String userId, String documentId) throws LibraryException {
+    public synchronized Loan createLoan(String userId, String documentId) throws LibraryException {
         try {
             // Validate user
             User user = findUserById(userId);
@@ -194,13 +462,13 @@ public class LibraryService {
             
             // Create loan
             String loanId = "L" + String.format("%04d", loanIdCounter++);
-            LocalDate loanDate = LocalDate.now();
+            LocalDate loanDate = EpochDay.currentDate();
             LocalDate dueDate = loanDate.plusDays(14); // 2 weeks loan period
             
             Loan loan = new Loan(loanId, userId, documentId, loanDate, dueDate);
             
             // Update states
-            document.setAvailable(false);
+            documentCollection.setAvailable(document, false);
             user.addLoan(documentId);
             loans.put(loanId, loan);
             
@@ -220,10 +488,75 @@ public class LibraryService {
         }
     }
     
+    /**
+     * Create loans for several documents at once.
+     * The whole batch is validated before anything changes, so either every document
+     * is lent or none is; the data is saved and observers are notified once.
+     */
+    public synchronized List<Loan> createLoans(String userId, List<String> documentIds) throws LibraryException {
+        try {
+            // Validate user and batch
+            User user = findUserById(userId);
+            if (documentIds == null || documentIds.isEmpty()) {
+                throw new InvalidInputException("No documents to lend");
+            }
+            if (documentIds.size() > user.getRemainingLoans()) {
+                throw new LibraryException("User has reached maximum loan limit");
+            }
+            
+            // Validate documents
+            Set<String> seen = new HashSet<>();
+            List<Document> documents = new ArrayList<>(documentIds.size());
+            for (String documentId : documentIds) {
+                if (!seen.add(documentId)) {
+                    throw new InvalidInputException("Document listed more than once: " + documentId);
+                }
+                Document document = findDocumentById(documentId);
+                if (document == null) {
+                    throw new DocumentNotFoundException(documentId);
+                }
+                if (!document.isAvailable()) {
+                    throw new LibraryException("Document is not available for loan: " + documentId);
+                }
+                documents.add(document);
+            }
+            
+            // Create loans
+            LocalDate loanDate = EpochDay.currentDate();
+            LocalDate dueDate = loanDate.plusDays(14); // 2 weeks loan period
+            List<Loan> created = new ArrayList<>(documents.size());
+            for (Document document : documents) {
+                String loanId = "L" + String.format("%04d", loanIdCounter++);
+                created.add(new Loan(loanId, userId, document.getId(), loanDate, dueDate));
+            }
+            
+            // Update states
+            documentCollection.setAvailable(documents, false);
+            for (Loan loan : created) {
+                user.addLoan(loan.getDocumentId());
+                loans.put(loan.getLoanId(), loan);
+            }
+            
+            // Notify observers
+            notificationSystem.notifyLoansCreated(userId, documentIds);
+            
+            logger.info("Created " + created.size() + " loans for user: " + userId);
+            saveData();
+            
+            return created;
+            
+        } catch (LibraryException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to create loans", e);
+            throw new LibraryException("Failed to create loans", e);
+        }
+    }
+    
     /**
      * Return a document
      */
-    public void returnDocument(String loanId) throws LibraryException {
+    public synchronized void returnDocument(String loanId) throws LibraryException {
         try {
             Loan loan = loans.get(loanId);
             if (loan == null) {
@@ -239,7 +572,7 @@ public class LibraryService {
             User user = findUserById(loan.getUserId());
             
             loan.returnDocument();
-            document.setAvailable(true);
+            documentCollection.setAvailable(document, true);
             user.removeLoan(loan.getDocumentId());
             
             // Notify observers
@@ -256,6 +589,70 @@ public class LibraryService {
         }
     }
     
+    /**
+     * Return several documents at once.
+     * The whole batch is validated before anything changes, so either every loan
+     * is returned or none is; the data is saved and observers are notified once.
+     */
+    public synchronized void returnDocuments(List<String> loanIds) throws LibraryException {
+        try {
+            if (loanIds == null || loanIds.isEmpty()) {
+                throw new InvalidInputException("No loans to return");
+            }
+            
+            // Validate loans
+            Set<String> seen = new HashSet<>();
+            List<Loan> returning = new ArrayList<>(loanIds.size());
+            for (String loanId : loanIds) {
+                if (!seen.add(loanId)) {
+                    throw new InvalidInputException("Loan listed more than once: " + loanId);
+                }
+                Loan loan = loans.get(loanId);
+                if (loan == null) {
+                    throw new LibraryException("Loan not found: " + loanId);
+                }
+                if (loan.getStatus() == Loan.LoanStatus.RETURNED) {
+                    throw new LibraryException("Document already returned: " + loanId);
+                }
+                returning.add(loan);
+            }
+            
+            List<Document> documents = new ArrayList<>(returning.size());
+            List<User> borrowers = new ArrayList<>(returning.size());
+            for (Loan loan : returning) {
+                Document document = findDocumentById(loan.getDocumentId());
+                if (document == null) {
+                    throw new DocumentNotFoundException(loan.getDocumentId());
+                }
+                documents.add(document);
+                borrowers.add(findUserById(loan.getUserId()));
+            }
+            
+            // Update states
+            Map<String, List<String>> returnedByUser = new LinkedHashMap<>();
+            for (int i = 0; i < returning.size(); i++) {
+                Loan loan = returning.get(i);
+                loan.returnDocument();
+                borrowers.get(i).removeLoan(loan.getDocumentId());
+                returnedByUser.computeIfAbsent(loan.getUserId(), id -> new ArrayList<>())
+                              .add(loan.getDocumentId());
+            }
+            documentCollection.setAvailable(documents, true);
+            
+            // Notify observers
+            notificationSystem.notifyLoansReturned(returnedByUser);
+            
+            logger.info("Returned " + returning.size() + " loans");
+            saveData();
+            
+        } catch (LibraryException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to return documents", e);
+            throw new LibraryException("Failed to return documents", e);
+        }
+    }
+    
     /**
      * Get all active loans
      */
@@ -298,8 +695,13 @@ public class LibraryService {
         try {
             // Load documents
             List<Document> docs = dataPersistence.loadDocuments();
-            for (Document doc : docs) {
-                documentCollection.add(doc);
+            IndexSegment searchIndex = dataPersistence.loadSearchIndex(docs);
+            if (searchIndex != null) {
+                invertedIndex.attach(searchIndex, docs);
+            }
+            documentCollection.addAll(docs);
+            if (searchIndex == null && !docs.isEmpty()) {
+                saveSearchIndex(docs);
             }
             
             // Load users
@@ -326,6 +728,17 @@ public class LibraryService {
         }
     }
     
+    /**
+     * Persist the freshly rebuilt search index so the next start can reuse it
+     */
+    private void saveSearchIndex(List<Document> docs) {
+        try {
+            dataPersistence.saveSearchIndex(invertedIndex, docs);
+        } catch (LibraryException e) {
+            logger.warning("Search index not saved: " + e.getMessage());
+        }
+    }
+    
     /**
      * Save data to files
      */
@@ -346,13 +759,16 @@ public class LibraryService {
     public Map<String, Integer> getStatistics() {
         Map<String, Integer> stats = new HashMap<>();
         stats.put("totalDocuments", documentCollection.size());
-        stats.put("availableDocuments", (int) documentCollection.getAll().stream()
-            .filter(Document::isAvailable).count());
+        stats.put("availableDocuments", documentCollection.count(
+            new DocumentFilter.Builder().available(true).build()));
         stats.put("totalUsers", users.size());
         stats.put("activeLoans", (int) loans.values().stream()
             .filter(l -> l.getStatus() == Loan.LoanStatus.ACTIVE).count());
         stats.put("overdueLoans", (int) loans.values().stream()
             .filter(Loan::isOverdue).count());
+        SearchResultCache cache = searchContext.getCache();
+        stats.put("searchCacheHits", (int) cache.getHits());
+        stats.put("searchCacheMisses", (int) cache.getMisses());
         return stats;
     }
 }
@@ -1,30 +1,28 @@
 package com.biblioteca.strategy;
 
 import com.biblioteca.model.Document;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 /**
  * Search strategy that searches by author name
  */
-public class AuthorSearchStrategy implements SearchStrategy {
+public class AuthorSearchStrategy extends ScanSearchStrategy {
     
-    @Override
-    public List<Document> search(List<Document> documents, String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        String lowerQuery = query.toLowerCase().trim();
-        
-        return documents.stream()
-            .filter(doc -> doc.getAuthor().toLowerCase().contains(lowerQuery))
-            .collect(Collectors.toList());
+    public AuthorSearchStrategy() {
+        this(ParallelScanExecutor.getDefault());
+    }
+    
+    public AuthorSearchStrategy(ParallelScanExecutor scanExecutor) {
+        super(scanExecutor);
     }
     
     @Override
     public String getStrategyName() {
         return "Author Search";
     }
+    
+    @Override
+    protected Predicate<Document> matcher(String normalizedQuery) {
+        return doc -> doc.getSearchAuthor().contains(normalizedQuery);
+    }
 }
@@ -0,0 +1,74 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.index.DocumentIndex;
+import com.biblioteca.index.PrefixTrie;
+import com.biblioteca.model.Document;
+import com.biblioteca.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Autocomplete for titles and authors.
+ * Complements the search strategies: suggests complete titles and author
+ * names for a typed prefix so a full search query can be built from them.
+ * Prefixes match the normalised forms, while suggestions are returned as the
+ * titles and names are written on the documents.
+ * Registered as an index so it stays current as documents are added and removed.
+ */
+public class AutocompleteService implements DocumentIndex {
+    
+    private final PrefixTrie titles;
+    private final PrefixTrie authors;
+    
+    public AutocompleteService() {
+        this.titles = new PrefixTrie();
+        this.authors = new PrefixTrie();
+    }
+    
+    @Override
+    public synchronized void add(Document document) {
+        titles.add(document.getSearchTitle(), document.getTitle());
+        authors.add(document.getSearchAuthor(), document.getAuthor());
+    }
+    
+    @Override
+    public synchronized void remove(Document document) {
+        titles.remove(document.getSearchTitle(), document.getTitle());
+        authors.remove(document.getSearchAuthor(), document.getAuthor());
+    }
+    
+    @Override
+    public synchronized void clear() {
+        titles.clear();
+        authors.clear();
+    }
+    
+    /**
+     * Suggest up to limit titles starting with prefix, ignoring case and accents,
+     * most common first
+     */
+    public synchronized List<String> suggestTitles(String prefix, int limit) {
+        return titles.complete(TextNormalizer.normalize(prefix), limit);
+    }
+    
+    /**
+     * Suggest up to limit author names starting with prefix, ignoring case and accents,
+     * most common first
+     */
+    public synchronized List<String> suggestAuthors(String prefix, int limit) {
+        return authors.complete(TextNormalizer.normalize(prefix), limit);
+    }
+    
+    /**
+     * Suggest up to limit titles or author names starting with prefix
+     */
+    public synchronized List<String> suggest(String prefix, int limit) {
+        Set<String> suggestions = new LinkedHashSet<>(suggestTitles(prefix, limit));
+        suggestions.addAll(suggestAuthors(prefix, limit));
+        List<String> result = new ArrayList<>(suggestions);
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+}
@@ -0,0 +1,89 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.index.DateRangeIndex;
+import com.biblioteca.model.Document;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Search strategy selecting documents by publication date.
+ * Queries are a range such as "2010..2015" or "2012-03-01..2012-06-30",
+ * open on either side ("2010.." or "..1999"), a single year, month or day,
+ * or "latest N" for the N newest documents. Years and months cover their
+ * whole period. Malformed queries match nothing.
+ */
+public class DateRangeSearchStrategy implements SearchStrategy {
+    
+    public static final int DEFAULT_LATEST = 10;
+    
+    private static final String LATEST = "latest";
+    private static final String RANGE_SEPARATOR = "..";
+    
+    private final DateRangeIndex index;
+    
+    public DateRangeSearchStrategy() {
+        this.index = null;
+    }
+    
+    public DateRangeSearchStrategy(DateRangeIndex index) {
+        this.index = index;
+    }
+    
+    @Override
+    public List<Document> search(List<Document> documents, String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        DateRangeIndex searchIndex = index;
+        if (searchIndex == null) {
+            searchIndex = new DateRangeIndex();
+            documents.forEach(searchIndex::add);
+        }
+        
+        String trimmed = query.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (trimmed.startsWith(LATEST)) {
+                String count = trimmed.substring(LATEST.length()).trim();
+                return searchIndex.latest(count.isEmpty() ? DEFAULT_LATEST : Integer.parseInt(count));
+            }
+            int separator = trimmed.indexOf(RANGE_SEPARATOR);
+            if (separator < 0) {
+                return searchIndex.range(parseBound(trimmed, false), parseBound(trimmed, true));
+            }
+            String from = trimmed.substring(0, separator).trim();
+            String to = trimmed.substring(separator + RANGE_SEPARATOR.length()).trim();
+            return searchIndex.range(from.isEmpty() ? null : parseBound(from, false),
+                                     to.isEmpty() ? null : parseBound(to, true));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return new ArrayList<>();
+        }
+    }
+    
+    @Override
+    public String getStrategyName() {
+        return "Publication Date Search";
+    }
+    
+    /**
+     * Parse a year, year-month or full date into the first or last day it covers
+     */
+    private static LocalDate parseBound(String text, boolean upper) {
+        switch (text.length()) {
+            case 4: {
+                int year = Integer.parseInt(text);
+                return upper ? LocalDate.of(year, 12, 31) : LocalDate.of(year, 1, 1);
+            }
+            case 7: {
+                YearMonth month = YearMonth.parse(text);
+                return upper ? month.atEndOfMonth() : month.atDay(1);
+            }
+            default:
+                return LocalDate.parse(text);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.index.FuzzyIndex;
+import com.biblioteca.model.Document;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typo-tolerant search strategy over titles and authors.
+ * When built on a maintained index it answers from that index, which covers
+ * the whole catalog; otherwise it indexes the given documents on the fly.
+ */
+public class FuzzySearchStrategy implements SearchStrategy {
+    
+    private final FuzzyIndex index;
+    
+    public FuzzySearchStrategy() {
+        this.index = null;
+    }
+    
+    public FuzzySearchStrategy(FuzzyIndex index) {
+        this.index = index;
+    }
+    
+    @Override
+    public List<Document> search(List<Document> documents, String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        if (index != null) {
+            return index.search(query);
+        }
+        
+        FuzzyIndex adHocIndex = new FuzzyIndex();
+        documents.forEach(adHocIndex::add);
+        return adHocIndex.search(query);
+    }
+    
+    @Override
+    public String getStrategyName() {
+        return "Fuzzy Search";
+    }
+}
@@ -1,34 +1,31 @@
 package com.biblioteca.strategy;
 
 import com.biblioteca.model.Document;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 /**
  * Search strategy that searches across all fields
  */
-public class GlobalSearchStrategy implements SearchStrategy {
+public class GlobalSearchStrategy extends ScanSearchStrategy {
     
-    @Override
-    public List<Document> search(List<Document> documents, String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        String lowerQuery = query.toLowerCase().trim();
-        
-        return documents.stream()
-            .filter(doc -> 
-                doc.getTitle().toLowerCase().contains(lowerQuery) ||
-                doc.getAuthor().toLowerCase().contains(lowerQuery) ||
-                doc.getId().toLowerCase().contains(lowerQuery)
-            )
-            .collect(Collectors.toList());
+    public GlobalSearchStrategy() {
+        this(ParallelScanExecutor.getDefault());
+    }
+    
+    public GlobalSearchStrategy(ParallelScanExecutor scanExecutor) {
+        super(scanExecutor);
     }
     
     @Override
     public String getStrategyName() {
         return "Global Search";
     }
+    
+    @Override
+    protected Predicate<Document> matcher(String normalizedQuery) {
+        return doc ->
+            doc.getSearchTitle().contains(normalizedQuery) ||
+            doc.getSearchAuthor().contains(normalizedQuery) ||
+            doc.getSearchId().contains(normalizedQuery);
+    }
 }
@@ -0,0 +1,52 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.index.IsbnIndex;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Document;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search strategy finding every copy of a book by ISBN.
+ * ISBN-10 and ISBN-13 forms match each other, with or without hyphens.
+ * When built on a maintained index it answers from that index in constant
+ * time; otherwise it compares normalised ISBNs across the given documents.
+ */
+public class IsbnSearchStrategy implements SearchStrategy {
+    
+    private final IsbnIndex index;
+    
+    public IsbnSearchStrategy() {
+        this.index = null;
+    }
+    
+    public IsbnSearchStrategy(IsbnIndex index) {
+        this.index = index;
+    }
+    
+    @Override
+    public List<Document> search(List<Document> documents, String query) {
+        List<Document> results = new ArrayList<>();
+        if (query == null || query.trim().isEmpty()) {
+            return results;
+        }
+        
+        if (index != null) {
+            results.addAll(index.findAll(query));
+            return results;
+        }
+        
+        String isbn = IsbnIndex.normalize(query);
+        for (Document document : documents) {
+            if (document instanceof Book && isbn.equals(IsbnIndex.normalize(((Book) document).getIsbn()))) {
+                results.add(document);
+            }
+        }
+        return results;
+    }
+    
+    @Override
+    public String getStrategyName() {
+        return "ISBN Search";
+    }
+}
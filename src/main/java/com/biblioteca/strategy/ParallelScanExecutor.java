@@ -0,0 +1,124 @@
+package com.biblioteca.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Executes predicate scans over document lists used by unindexed search strategies.
+ * Small lists are scanned sequentially; lists at or above the parallel threshold
+ * are split into contiguous chunks scanned on a fork-join pool, and the chunk
+ * results are concatenated in list order. Lists are split through their own
+ * spliterator, so catalog snapshots are scanned in place without being copied.
+ */
+public class ParallelScanExecutor {
+    
+    /**
+     * System property overriding the parallel threshold of the shared executor
+     */
+    public static final String PARALLEL_THRESHOLD_PROPERTY = "biblioteca.scan.parallelThreshold";
+    
+    /**
+     * Catalog size from which the shared executor scans in parallel, unless
+     * overridden through PARALLEL_THRESHOLD_PROPERTY. This is an estimate, not a
+     * measurement: a sequential scan of 16k documents takes under a millisecond,
+     * about the cost of forking, but the parallel crossover has not been measured
+     * on a multi-core machine. Measure it there with ParallelScanBenchmark in the
+     * test sources and set the property to the size it reports.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 16384;
+    
+    /**
+     * Documents scanned by one task: large enough to amortise forking,
+     * small enough to balance work across cores
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+    
+    private static final ParallelScanExecutor DEFAULT = new ParallelScanExecutor(
+        ForkJoinPool.commonPool(),
+        Integer.getInteger(PARALLEL_THRESHOLD_PROPERTY, DEFAULT_PARALLEL_THRESHOLD),
+        DEFAULT_CHUNK_SIZE);
+    
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final int chunkSize;
+    
+    public ParallelScanExecutor(ForkJoinPool pool, int parallelThreshold, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Shared executor running on the common fork-join pool, with the parallel
+     * threshold read from PARALLEL_THRESHOLD_PROPERTY at startup
+     */
+    public static ParallelScanExecutor getDefault() {
+        return DEFAULT;
+    }
+    
+    /**
+     * Select the elements matching a predicate, in list order
+     */
+    public <T> List<T> filter(List<T> items, Predicate<? super T> predicate) {
+        if (items.size() < parallelThreshold || pool.getParallelism() <= 1) {
+            return scan(items.spliterator(), predicate);
+        }
+        return pool.invoke(new ScanTask<>(items.spliterator(), predicate, chunkSize));
+    }
+    
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+    
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    private static <T> List<T> scan(Spliterator<T> items, Predicate<? super T> predicate) {
+        List<T> matches = new ArrayList<>();
+        items.forEachRemaining(item -> {
+            if (predicate.test(item)) {
+                matches.add(item);
+            }
+        });
+        return matches;
+    }
+    
+    /**
+     * Scans a range, splitting it until it fits in one chunk
+     */
+    private static final class ScanTask<T> extends RecursiveTask<List<T>> {
+        
+        private final Spliterator<T> items;
+        private final Predicate<? super T> predicate;
+        private final int chunkSize;
+        
+        ScanTask(Spliterator<T> items, Predicate<? super T> predicate, int chunkSize) {
+            this.items = items;
+            this.predicate = predicate;
+            this.chunkSize = chunkSize;
+        }
+        
+        @Override
+        protected List<T> compute() {
+            Spliterator<T> prefix = items.estimateSize() > chunkSize ? items.trySplit() : null;
+            if (prefix == null) {
+                return scan(items, predicate);
+            }
+            // The split-off prefix comes first in list order
+            ScanTask<T> left = new ScanTask<>(prefix, predicate, chunkSize);
+            left.fork();
+            List<T> right = new ScanTask<>(items, predicate, chunkSize).compute();
+            List<T> matches = left.join();
+            matches.addAll(right);
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.index.InvertedIndex;
+import com.biblioteca.model.Document;
+import com.biblioteca.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Search strategy returning the most relevant documents first.
+ * Scores title, author and id matches with BM25 and per-field boosts, and
+ * keeps only the best results in a bounded heap instead of sorting every hit.
+ */
+public class RankedSearchStrategy implements SearchStrategy {
+    
+    public static final int DEFAULT_LIMIT = 20;
+    
+    // BM25 term frequency saturation and length normalisation
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    
+    private static final Map<InvertedIndex.Field, Double> DEFAULT_BOOSTS =
+        new EnumMap<>(InvertedIndex.Field.class);
+    
+    static {
+        DEFAULT_BOOSTS.put(InvertedIndex.Field.TITLE, 2.0);
+        DEFAULT_BOOSTS.put(InvertedIndex.Field.AUTHOR, 1.5);
+        DEFAULT_BOOSTS.put(InvertedIndex.Field.ID, 3.0);
+    }
+    
+    private final InvertedIndex index;
+    private final int limit;
+    private final Map<InvertedIndex.Field, Double> boosts;
+    
+    public RankedSearchStrategy() {
+        this(null, DEFAULT_LIMIT);
+    }
+    
+    public RankedSearchStrategy(InvertedIndex index, int limit) {
+        this(index, limit, DEFAULT_BOOSTS);
+    }
+    
+    /**
+     * @throws IllegalArgumentException if limit is not positive
+     */
+    public RankedSearchStrategy(InvertedIndex index, int limit, Map<InvertedIndex.Field, Double> boosts) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        this.index = index;
+        this.limit = limit;
+        this.boosts = new EnumMap<>(boosts);
+    }
+    
+    @Override
+    public List<Document> search(List<Document> documents, String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        InvertedIndex searchIndex = index;
+        if (searchIndex == null) {
+            searchIndex = new InvertedIndex();
+            documents.forEach(searchIndex::add);
+        }
+        
+        Map<Document, Double> scores = score(searchIndex, query);
+        return topK(scores);
+    }
+    
+    @Override
+    public String getStrategyName() {
+        return "Ranked Search";
+    }
+    
+    @Override
+    public String getCacheKey() {
+        return getClass().getName() + ":" + limit + ":" + boosts;
+    }
+    
+    /**
+     * Accumulate boosted BM25 scores for every document matching a query token
+     */
+    private Map<Document, Double> score(InvertedIndex searchIndex, String query) {
+        Map<Document, Double> scores = new HashMap<>();
+        int documentCount = searchIndex.documentCount();
+        for (String token : new LinkedHashSet<>(TextNormalizer.tokenize(query))) {
+            for (Map.Entry<InvertedIndex.Field, Double> boost : boosts.entrySet()) {
+                InvertedIndex.Field field = boost.getKey();
+                Map<Document, Integer> postings = searchIndex.postings(field, token);
+                if (postings.isEmpty()) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - postings.size() + 0.5) / (postings.size() + 0.5));
+                double averageLength = Math.max(searchIndex.averageFieldLength(field), 1);
+                for (Map.Entry<Document, Integer> posting : postings.entrySet()) {
+                    int tf = posting.getValue();
+                    int length = searchIndex.fieldLength(posting.getKey(), field);
+                    double norm = K1 * (1 - B + B * length / averageLength);
+                    double fieldScore = boost.getValue() * idf * tf * (K1 + 1) / (tf + norm);
+                    scores.merge(posting.getKey(), fieldScore, Double::sum);
+                }
+            }
+        }
+        return scores;
+    }
+    
+    /**
+     * Select the best scored documents with a min-heap bounded to the limit
+     */
+    private List<Document> topK(Map<Document, Double> scores) {
+        Comparator<Map.Entry<Document, Double>> byRelevance = Map.Entry.<Document, Double>comparingByValue()
+            .thenComparing(entry -> entry.getKey().getId(), Comparator.reverseOrder());
+        PriorityQueue<Map.Entry<Document, Double>> heap = new PriorityQueue<>(limit + 1, byRelevance);
+        for (Map.Entry<Document, Double> entry : scores.entrySet()) {
+            if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (byRelevance.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Document> results = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            results.add(heap.poll().getKey());
+        }
+        Collections.reverse(results);
+        return results;
+    }
+}
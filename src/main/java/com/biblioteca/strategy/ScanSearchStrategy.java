@@ -0,0 +1,60 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.Document;
+import com.biblioteca.util.TextNormalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Base class for strategies that test every document against the normalised query.
+ * Full searches go through a ParallelScanExecutor; streams and paged searches use
+ * the same predicate in document order. Subclasses supply only the predicate.
+ */
+public abstract class ScanSearchStrategy implements SearchStrategy {
+    
+    private final ParallelScanExecutor scanExecutor;
+    
+    protected ScanSearchStrategy(ParallelScanExecutor scanExecutor) {
+        this.scanExecutor = scanExecutor;
+    }
+    
+    @Override
+    public List<Document> search(List<Document> documents, String query) {
+        if (isBlank(query)) {
+            return new ArrayList<>();
+        }
+        
+        return scanExecutor.filter(documents, matcher(TextNormalizer.normalize(query)));
+    }
+    
+    @Override
+    public Stream<Document> searchStream(List<Document> documents, String query) {
+        if (isBlank(query)) {
+            return Stream.empty();
+        }
+        
+        return documents.stream().filter(matcher(TextNormalizer.normalize(query)));
+    }
+    
+    @Override
+    public Predicate<Document> documentMatcher(String query) {
+        if (isBlank(query)) {
+            return doc -> false;
+        }
+        
+        return matcher(TextNormalizer.normalize(query));
+    }
+    
+    /**
+     * Test selecting the documents that match a query
+     *
+     * @param normalizedQuery Query normalised by TextNormalizer, never blank
+     */
+    protected abstract Predicate<Document> matcher(String normalizedQuery);
+    
+    private static boolean isBlank(String query) {
+        return query == null || query.trim().isEmpty();
+    }
+}
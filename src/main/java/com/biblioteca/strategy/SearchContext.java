@@ -1,14 +1,27 @@
 package com.biblioteca.strategy;
 
 import com.biblioteca.model.Document;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Context for switching between search strategies.
+ * Optionally serves repeated queries from a result cache, and can return
+ * results page by page or stream them to a callback. With a cache, pages are
+ * cut from the cached results of the query, which the first page fills.
+ * Strategies that cannot resume a scan from a catalogue position always page
+ * through results computed once, kept in a small private cache if none is set.
  */
 public class SearchContext {
     
+    // Queries of strategies without a document matcher whose results are kept for paging
+    private static final int PAGED_RESULTS_SIZE = 8;
+    
     private SearchStrategy strategy;
+    private SearchResultCache cache;
+    private final SearchResultCache pagedResults = new SearchResultCache(PAGED_RESULTS_SIZE, null);
     
     public SearchContext() {
         this.strategy = new TitleSearchStrategy();
@@ -24,11 +37,188 @@ public class SearchContext {
         }
     }
     
+    public void setCache(SearchResultCache cache) {
+        this.cache = cache;
+    }
+    
+    public SearchResultCache getCache() {
+        return cache;
+    }
+    
     public List<Document> executeSearch(List<Document> documents, String query) {
         return strategy.search(documents, query);
     }
     
+    /**
+     * Execute a search, reusing cached results computed for the same catalog version
+     * 
+     * @param documents Documents to search through
+     * @param query Search query
+     * @param catalogVersion Version of the catalog the documents were taken from
+     */
+    public List<Document> executeSearch(List<Document> documents, String query, long catalogVersion) {
+        if (cache == null) {
+            return executeSearch(documents, query);
+        }
+        List<Document> cached = cache.get(strategy, query, catalogVersion);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        List<Document> results = strategy.search(documents, query);
+        cache.put(strategy, query, catalogVersion, results);
+        return results;
+    }
+    
+    /**
+     * Stream the results of a search to a callback as they are found
+     */
+    public void executeSearch(List<Document> documents, String query, Consumer<? super Document> callback) {
+        strategy.searchStream(documents, query).forEach(callback);
+    }
+    
+    /**
+     * Execute a search and return a single page of its results.
+     * With a cache, or for strategies without a document matcher, the results are
+     * computed once and later pages are cut from them; otherwise only as many
+     * results as the page needs are produced.
+     * 
+     * @param documents Documents to search through
+     * @param query Search query
+     * @param catalogVersion Version of the catalog the documents were taken from
+     * @param offset Number of results to skip
+     * @param limit Maximum number of results in the page
+     */
+    public SearchPage executeSearchPage(List<Document> documents, String query, long catalogVersion,
+                                        int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Offset must not be negative and limit must be positive");
+        }
+        return readPage(documents, query, catalogVersion, offset, -1, limit);
+    }
+    
+    /**
+     * Return the page following the one that issued a continuation token.
+     * Tokens are bound to the query, the strategy and the catalog version,
+     * so a page never silently skips or repeats results. Pages are cut from
+     * cached results when there are any; otherwise, for strategies that scan in
+     * document order, the token holds the catalogue position to resume from,
+     * so each page costs only the documents it covers.
+     * 
+     * @throws IllegalArgumentException if the token is malformed, belongs to another
+     *         search, or documents were added or removed since it was issued
+     */
+    public SearchPage executeSearchPage(List<Document> documents, String query, long catalogVersion,
+                                        String continuationToken, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        String[] parts = continuationToken == null ? new String[0] : continuationToken.split("-");
+        if (parts.length != 3 && parts.length != 4) {
+            throw new IllegalArgumentException("Malformed continuation token");
+        }
+        long version;
+        int offset;
+        int fingerprint;
+        int position = -1;
+        try {
+            version = Long.parseLong(parts[0], 36);
+            offset = Integer.parseInt(parts[1], 36);
+            fingerprint = Integer.parseUnsignedInt(parts[2], 16);
+            if (parts.length == 4) {
+                position = Integer.parseInt(parts[3], 36);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed continuation token");
+        }
+        if (fingerprint != fingerprint(query)) {
+            throw new IllegalArgumentException("Continuation token belongs to a different search");
+        }
+        if (version != catalogVersion) {
+            throw new IllegalArgumentException("The catalog has changed; restart the search");
+        }
+        if (offset < 0 || (parts.length == 4 && position < 0)) {
+            throw new IllegalArgumentException("Malformed continuation token");
+        }
+        return readPage(documents, query, catalogVersion, offset, position, limit);
+    }
+    
     public String getCurrentStrategyName() {
         return strategy.getStrategyName();
     }
+    
+    private int fingerprint(String query) {
+        return (strategy.getCacheKey() + '\0' + (query == null ? "" : query.trim())).hashCode();
+    }
+    
+    /**
+     * Read the page of results starting at offset: from cached results when
+     * there is a cache to hold them, otherwise by scanning.
+     * A known catalogue position lets document-order scans resume without
+     * skipping the earlier results again; -1 means it is unknown.
+     */
+    private SearchPage readPage(List<Document> documents, String query, long catalogVersion,
+                                int offset, int position, int limit) {
+        Predicate<Document> matcher = strategy.documentMatcher(query);
+        SearchResultCache resultCache = cache != null ? cache : matcher == null ? pagedResults : null;
+        if (resultCache != null) {
+            List<Document> results = resultCache.get(strategy, query, catalogVersion);
+            if (results == null) {
+                results = strategy.search(documents, query);
+                resultCache.put(strategy, query, catalogVersion, results);
+            }
+            return slicePage(results, query, catalogVersion, offset, limit);
+        }
+        if (position < 0) {
+            // Find the catalogue position just after the skipped results
+            position = 0;
+            for (int skipped = 0; skipped < offset && position < documents.size(); position++) {
+                if (matcher.test(documents.get(position))) {
+                    skipped++;
+                }
+            }
+        }
+        return scanPage(documents, query, catalogVersion, matcher, offset, position, limit);
+    }
+    
+    /**
+     * Cut a page out of complete results
+     */
+    private SearchPage slicePage(List<Document> results, String query, long catalogVersion,
+                                 int offset, int limit) {
+        int from = Math.min(offset, results.size());
+        int to = (int) Math.min((long) from + limit, results.size());
+        String nextToken = to < results.size()
+            ? encodeToken(catalogVersion, to, fingerprint(query), -1) : null;
+        return new SearchPage(new ArrayList<>(results.subList(from, to)), offset, nextToken);
+    }
+    
+    /**
+     * Produce a page by testing documents from a catalogue position onward
+     */
+    private SearchPage scanPage(List<Document> documents, String query, long catalogVersion,
+                                Predicate<Document> matcher, int offset, int position, int limit) {
+        List<Document> page = new ArrayList<>(limit);
+        String nextToken = null;
+        for (int i = position; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            if (matcher.test(document)) {
+                if (page.size() == limit) {
+                    // The next page starts at this match
+                    nextToken = encodeToken(catalogVersion, offset + limit, fingerprint(query), i);
+                    break;
+                }
+                page.add(document);
+            }
+        }
+        return new SearchPage(page, offset, nextToken);
+    }
+    
+    /**
+     * Encode a token; the catalogue position is left out when it is unknown
+     */
+    private static String encodeToken(long catalogVersion, int offset, int fingerprint, int position) {
+        String token = Long.toString(catalogVersion, 36) + "-" + Integer.toString(offset, 36)
+            + "-" + Integer.toHexString(fingerprint);
+        return position < 0 ? token : token + "-" + Integer.toString(position, 36);
+    }
 }
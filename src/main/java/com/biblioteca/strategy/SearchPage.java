@@ -0,0 +1,43 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.Document;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of search results, with a token to fetch the next page.
+ */
+public class SearchPage {
+    
+    private final List<Document> documents;
+    private final int offset;
+    private final String nextToken;
+    
+    public SearchPage(List<Document> documents, int offset, String nextToken) {
+        this.documents = Collections.unmodifiableList(documents);
+        this.offset = offset;
+        this.nextToken = nextToken;
+    }
+    
+    public List<Document> getDocuments() {
+        return documents;
+    }
+    
+    /**
+     * Position of the first document of this page within all results
+     */
+    public int getOffset() {
+        return offset;
+    }
+    
+    /**
+     * Continuation token for the next page, or null if this is the last page
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+    
+    public boolean hasMore() {
+        return nextToken != null;
+    }
+}
@@ -0,0 +1,140 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.Document;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded cache of search results keyed by strategy and query.
+ * Evicts the least recently used entry once full. Each entry remembers the
+ * catalog version it was computed for, so any change to the catalog
+ * invalidates it exactly; an optional time-to-live bounds its age as well.
+ */
+public class SearchResultCache {
+    
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries;
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    /**
+     * @param maxEntries Maximum number of cached queries
+     * @param ttl Maximum age of an entry, or null for no time limit
+     */
+    public SearchResultCache(int maxEntries, Duration ttl) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl != null ? ttl.toNanos() : 0;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+    
+    /**
+     * Get cached results as a shared read-only list, or null if absent, stale or expired
+     */
+    public synchronized List<Document> get(SearchStrategy strategy, String query, long catalogVersion) {
+        Key key = new Key(strategy.getCacheKey(), normalize(query));
+        Entry entry = entries.get(key);
+        if (entry == null || entry.catalogVersion != catalogVersion || isExpired(entry)) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.results;
+    }
+    
+    /**
+     * Cache results computed against the given catalog version
+     */
+    public synchronized void put(SearchStrategy strategy, String query, long catalogVersion,
+                                 List<Document> results) {
+        Key key = new Key(strategy.getCacheKey(), normalize(query));
+        entries.put(key, new Entry(new ArrayList<>(results), catalogVersion, System.nanoTime()));
+        while (entries.size() > maxEntries) {
+            Key eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+            evictions++;
+        }
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    private boolean isExpired(Entry entry) {
+        return ttlNanos > 0 && System.nanoTime() - entry.createdAt > ttlNanos;
+    }
+    
+    /**
+     * Strategies trim queries themselves, so surrounding whitespace never matters
+     */
+    private static String normalize(String query) {
+        return query == null ? "" : query.trim();
+    }
+    
+    private static final class Key {
+        
+        private final String strategy;
+        private final String query;
+        
+        Key(String strategy, String query) {
+            this.strategy = strategy;
+            this.query = query;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return strategy.equals(key.strategy) && query.equals(key.query);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(strategy, query);
+        }
+    }
+    
+    private static final class Entry {
+        
+        private final List<Document> results;
+        private final long catalogVersion;
+        private final long createdAt;
+        
+        Entry(List<Document> results, long catalogVersion, long createdAt) {
+            this.results = Collections.unmodifiableList(results);
+            this.catalogVersion = catalogVersion;
+            this.createdAt = createdAt;
+        }
+    }
+}
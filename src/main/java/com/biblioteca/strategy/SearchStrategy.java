@@ -2,6 +2,8 @@ package com.biblioteca.strategy;
 
 import com.biblioteca.model.Document;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Strategy interface for document search algorithms.
@@ -18,8 +20,35 @@ public interface SearchStrategy {
      */
     List<Document> search(List<Document> documents, String query);
     
+    /**
+     * Lazily stream the matching documents, in the same order as {@link #search}.
+     * Strategies that scan in document order override this so that callers
+     * reading only a prefix of the results do not pay for the rest.
+     */
+    default Stream<Document> searchStream(List<Document> documents, String query) {
+        return search(documents, query).stream();
+    }
+    
+    /**
+     * Test deciding each document on its own, for strategies whose results are
+     * exactly the matching documents in document order; null for any other strategy.
+     * Paged searches use it to resume scanning from a catalogue position.
+     */
+    default Predicate<Document> documentMatcher(String query) {
+        return null;
+    }
+    
     /**
      * Get the name of this search strategy
      */
     String getStrategyName();
+    
+    /**
+     * Identify this strategy's configuration for result caching.
+     * Strategies whose results depend on settings beyond their class must
+     * include those settings.
+     */
+    default String getCacheKey() {
+        return getClass().getName();
+    }
 }
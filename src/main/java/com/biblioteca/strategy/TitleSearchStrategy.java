@@ -1,30 +1,28 @@
 package com.biblioteca.strategy;
 
 import com.biblioteca.model.Document;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 /**
  * Search strategy that searches by document title
  */
-public class TitleSearchStrategy implements SearchStrategy {
+public class TitleSearchStrategy extends ScanSearchStrategy {
     
-    @Override
-    public List<Document> search(List<Document> documents, String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        String lowerQuery = query.toLowerCase().trim();
-        
-        return documents.stream()
-            .filter(doc -> doc.getTitle().toLowerCase().contains(lowerQuery))
-            .collect(Collectors.toList());
+    public TitleSearchStrategy() {
+        this(ParallelScanExecutor.getDefault());
+    }
+    
+    public TitleSearchStrategy(ParallelScanExecutor scanExecutor) {
+        super(scanExecutor);
     }
     
     @Override
     public String getStrategyName() {
         return "Title Search";
     }
+    
+    @Override
+    protected Predicate<Document> matcher(String normalizedQuery) {
+        return doc -> doc.getSearchTitle().contains(normalizedQuery);
+    }
 }
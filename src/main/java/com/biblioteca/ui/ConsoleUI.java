@@ -2,8 +2,10 @@ package com.biblioteca.ui;
 
 import com.biblioteca.exception.*;
 import com.biblioteca.factory.DocumentCreationParams;
+import com.biblioteca.index.FacetIndex;
 import com.biblioteca.model.*;
 import com.biblioteca.observer.ConsoleNotifier;
+import com.biblioteca.query.QueryResult;
 import com.biblioteca.service.LibraryService;
 import com.biblioteca.strategy.*;
 import com.biblioteca.util.InputValidator;
@@ -15,6 +17,7 @@ import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 
 /**
  * Console-based user interface for the library system.
@@ -22,6 +25,9 @@ import java.util.Scanner;
  */
 public class ConsoleUI {
     
+    private static final int AUTOCOMPLETE_LIMIT = 10;
+    private static final int SEARCH_PAGE_SIZE = 20;
+    
     private final LibraryService libraryService;
     private final Scanner scanner;
     private final LibraryLogger logger;
@@ -163,8 +169,13 @@ public class ConsoleUI {
             .addExtraParam("genre", genre)
             .build();
         
-        libraryService.addDocument(Document.DocumentType.BOOK, params);
-        System.out.println("\n✓ Book added successfully!\n");
+        List<Book> copies = libraryService.addDocument(Document.DocumentType.BOOK, params);
+        System.out.println("\n✓ Book added successfully!");
+        if (!copies.isEmpty()) {
+            System.out.println("Note: added as another copy of ISBN " + isbn + ", already held as "
+                + copies.stream().map(Document::getId).collect(Collectors.joining(", ")));
+        }
+        System.out.println();
     }
     
     private void addMagazine() throws LibraryException {
@@ -328,7 +339,7 @@ public class ConsoleUI {
         System.out.println("Phone: " + user.getPhone());
         System.out.println("Type: " + user.getUserType());
         System.out.println("Registration Date: " + user.getRegistrationDate());
-        System.out.println("Current Loans: " + user.getCurrentLoans().size() + 
+        System.out.println("Current Loans: " + user.getLoanCount() + 
                          "/" + user.getUserType().getMaxLoans());
         System.out.println();
     }
@@ -441,6 +452,12 @@ public class ConsoleUI {
         System.out.println("2. Search by Author");
         System.out.println("3. Search by ID");
         System.out.println("4. Global Search");
+        System.out.println("5. Autocomplete Title/Author");
+        System.out.println("6. Fuzzy Search (tolerates typos)");
+        System.out.println("7. Ranked Search (best matches first)");
+        System.out.println("8. Advanced Query (e.g. author:garcia AND type:BOOK AND year>=2010)");
+        System.out.println("9. Publication Date (e.g. 2010..2015, 2012-03, latest 10)");
+        System.out.println("10. Search by ISBN");
         System.out.println("0. Back to Main Menu");
         System.out.println();
         
@@ -448,6 +465,16 @@ public class ConsoleUI {
         
         if (choice == 0) return;
         
+        if (choice == 5) {
+            autocomplete();
+            return;
+        }
+        
+        if (choice == 8) {
+            advancedQuery();
+            return;
+        }
+        
         String query = readInput("Enter search query: ");
         
         SearchStrategy strategy;
@@ -464,20 +491,82 @@ public class ConsoleUI {
             case 4:
                 strategy = new GlobalSearchStrategy();
                 break;
+            case 6:
+                strategy = libraryService.getFuzzySearchStrategy();
+                break;
+            case 7:
+                strategy = libraryService.getRankedSearchStrategy(RankedSearchStrategy.DEFAULT_LIMIT);
+                break;
+            case 9:
+                strategy = libraryService.getDateRangeSearchStrategy();
+                break;
+            case 10:
+                strategy = libraryService.getIsbnSearchStrategy();
+                break;
             default:
                 System.out.println("Invalid choice.\n");
                 return;
         }
         
-        List<Document> results = libraryService.searchDocuments(query, strategy);
-        
         System.out.println("\n=== SEARCH RESULTS ===");
-        if (results.isEmpty()) {
-            System.out.println("No documents found.");
+        try {
+            SearchPage page = libraryService.searchDocumentsPage(query, strategy, 0, SEARCH_PAGE_SIZE);
+            if (page.getDocuments().isEmpty()) {
+                System.out.println("No documents found.");
+            }
+            while (true) {
+                for (Document doc : page.getDocuments()) {
+                    System.out.println(doc.toString());
+                }
+                if (!page.hasMore() || !readInput("Show more results? (y/n): ").equalsIgnoreCase("y")) {
+                    break;
+                }
+                page = libraryService.searchDocumentsPage(query, strategy, page.getNextToken(), SEARCH_PAGE_SIZE);
+            }
+        } catch (LibraryException e) {
+            String userMessage = ExceptionHandler.handleException(e);
+            System.out.println("\nERROR: " + userMessage);
+        }
+        System.out.println();
+    }
+    
+    private void advancedQuery() {
+        // Read the raw query: sanitising would escape the quotes and operators it relies on
+        System.out.print("Enter query: ");
+        String query = scanner.nextLine().trim();
+        
+        try {
+            QueryResult result = libraryService.executeQuery(query);
+            
+            System.out.println("\n=== QUERY PLAN ===");
+            System.out.print(result.explain());
+            
+            System.out.println("\n=== SEARCH RESULTS ===");
+            if (result.getDocuments().isEmpty()) {
+                System.out.println("No documents found.");
+            } else {
+                System.out.println("Found " + result.getDocuments().size() + " document(s):");
+                for (Document doc : result.getDocuments()) {
+                    System.out.println(doc.toString());
+                }
+            }
+            System.out.println();
+        } catch (LibraryException e) {
+            String userMessage = ExceptionHandler.handleException(e);
+            System.out.println("\nERROR: " + userMessage + "\n");
+        }
+    }
+    
+    private void autocomplete() {
+        String prefix = readInput("Enter beginning of title or author: ");
+        List<String> suggestions = libraryService.autocomplete(prefix, AUTOCOMPLETE_LIMIT);
+        
+        System.out.println("\n=== SUGGESTIONS ===");
+        if (suggestions.isEmpty()) {
+            System.out.println("No suggestions found.");
         } else {
-            System.out.println("Found " + results.size() + " document(s):");
-            for (Document doc : results) {
-                System.out.println(doc.toString());
+            for (String suggestion : suggestions) {
+                System.out.println("- " + suggestion);
             }
         }
         System.out.println();
@@ -494,6 +583,16 @@ public class ConsoleUI {
         System.out.println("Total Users: " + stats.get("totalUsers"));
         System.out.println("Active Loans: " + stats.get("activeLoans"));
         System.out.println("Overdue Loans: " + stats.get("overdueLoans"));
+        System.out.println("Search Cache Hits/Misses: " + stats.get("searchCacheHits") +
+                         "/" + stats.get("searchCacheMisses"));
+        
+        System.out.println("\n=== CATALOGUE BREAKDOWN ===");
+        for (Map.Entry<FacetIndex.Facet, Map<String, Integer>> facet
+                : libraryService.getFacetCounts().entrySet()) {
+            if (!facet.getValue().isEmpty()) {
+                System.out.println(facet.getKey() + ": " + facet.getValue());
+            }
+        }
         System.out.println();
     }
     
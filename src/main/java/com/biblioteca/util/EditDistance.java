@@ -0,0 +1,50 @@
+package com.biblioteca.util;
+
+/**
+ * Utility class computing Levenshtein edit distances.
+ */
+public class EditDistance {
+    
+    private EditDistance() {
+    }
+    
+    /**
+     * Levenshtein distance between two strings
+     */
+    public static int levenshtein(String a, String b) {
+        return levenshtein(a, b, Integer.MAX_VALUE - 1);
+    }
+    
+    /**
+     * Levenshtein distance between two strings, stopping early once it is
+     * known to exceed maxDistance; in that case maxDistance + 1 is returned
+     */
+    public static int levenshtein(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                                      previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+}
@@ -0,0 +1,90 @@
+package com.biblioteca.util;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Utility class for dates stored compactly as epoch-day ints.
+ * Also caches today's epoch day, refreshing it only when the clock passes
+ * midnight, so frequent checks such as overdue tests allocate nothing.
+ */
+public class EpochDay {
+    
+    /**
+     * Stored in place of a missing date
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+    
+    private static volatile Clock clock = Clock.systemDefaultZone();
+    private static volatile CachedDay cachedDay = CachedDay.of(clock);
+    
+    private EpochDay() {
+    }
+    
+    /**
+     * Epoch day of a date, or NONE if null
+     */
+    public static int of(LocalDate date) {
+        return date != null ? Math.toIntExact(date.toEpochDay()) : NONE;
+    }
+    
+    /**
+     * Date of an epoch day, or null if NONE
+     */
+    public static LocalDate toLocalDate(int epochDay) {
+        return epochDay != NONE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+    
+    /**
+     * Today's epoch day in the clock's time zone
+     */
+    public static int today() {
+        CachedDay cached = cachedDay;
+        long now = clock.millis();
+        if (now < cached.start || now >= cached.end) {
+            cached = CachedDay.of(clock);
+            cachedDay = cached;
+        }
+        return cached.day;
+    }
+    
+    /**
+     * Today's date in the clock's time zone
+     */
+    public static LocalDate currentDate() {
+        return LocalDate.ofEpochDay(today());
+    }
+    
+    /**
+     * Replace the clock, for tests and simulations; null restores the system clock
+     */
+    public static void useClock(Clock newClock) {
+        clock = newClock != null ? newClock : Clock.systemDefaultZone();
+        cachedDay = CachedDay.of(clock);
+    }
+    
+    /**
+     * A day and the instants, in epoch milliseconds, between which it is today
+     */
+    private static final class CachedDay {
+        
+        final int day;
+        final long start;
+        final long end;
+        
+        private CachedDay(int day, long start, long end) {
+            this.day = day;
+            this.start = start;
+            this.end = end;
+        }
+        
+        static CachedDay of(Clock clock) {
+            ZoneId zone = clock.getZone();
+            LocalDate date = LocalDate.now(clock);
+            return new CachedDay(EpochDay.of(date),
+                                 date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                                 date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+        }
+    }
+}
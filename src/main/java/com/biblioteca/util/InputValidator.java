@@ -1,70 +1,145 @@
 package com.biblioteca.util;
 
-import java.util.regex.Pattern;
-
 /**
  * Utility class for input validation and sanitization.
  * Implements security best practices for input handling.
+ * Validators check character classes in a single pass instead of running
+ * regexes, since they run for every field of every document created.
  */
 public class InputValidator {
     
-    // Regex patterns for validation
-    private static final Pattern ID_PATTERN = Pattern.compile("^[A-Za-z0-9_-]{1,20}$");
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
-    private static final Pattern PHONE_PATTERN = Pattern.compile("^[0-9+\\-\\s()]{7,20}$");
-    private static final Pattern ALPHANUMERIC_PATTERN = Pattern.compile("^[A-Za-z0-9\\s.,!?'\"\\-]{1,200}$");
+    private static final int MAX_ID_LENGTH = 20;
+    private static final int MAX_STRING_LENGTH = 200;
+    private static final int MIN_PHONE_LENGTH = 7;
+    private static final int MAX_PHONE_LENGTH = 20;
     
     /**
-     * Validate ID format (alphanumeric, underscore, hyphen only)
+     * Validate ID format (alphanumeric, underscore, hyphen only, 1-20 characters)
      */
     public static boolean isValidId(String id) {
-        return id != null && ID_PATTERN.matcher(id).matches();
+        if (id == null || id.isEmpty() || id.length() > MAX_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '_' && c != '-') {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
-     * Validate general string input (no special characters that could cause injection)
+     * Validate general string input (no special characters that could cause injection).
+     * Allows letters, digits, whitespace and . , ! ? ' " - up to 200 characters,
+     * with at least one character that is not whitespace.
      */
     public static boolean isValidString(String input) {
-        return input != null && !input.trim().isEmpty() && 
-               ALPHANUMERIC_PATTERN.matcher(input).matches();
+        if (input == null || input.isEmpty() || input.length() > MAX_STRING_LENGTH) {
+            return false;
+        }
+        boolean blank = true;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (isWhitespace(c)) {
+                continue;
+            }
+            if (!isAsciiLetterOrDigit(c) && ".,!?'\"-".indexOf(c) < 0) {
+                return false;
+            }
+            blank = false;
+        }
+        return !blank;
     }
     
     /**
-     * Validate email format
+     * Validate email format: local@domain.tld, where the top-level domain has at least two letters
      */
     public static boolean isValidEmail(String email) {
-        return email != null && EMAIL_PATTERN.matcher(email).matches();
+        if (email == null) {
+            return false;
+        }
+        int at = email.indexOf('@');
+        if (at <= 0) {
+            return false;
+        }
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '+' && c != '_' && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        int dot = email.lastIndexOf('.');
+        if (dot <= at + 1 || email.length() - dot - 1 < 2) {
+            return false;
+        }
+        for (int i = at + 1; i < dot; i++) {
+            char c = email.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        for (int i = dot + 1; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z'))) {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
-     * Validate phone number format
+     * Validate phone number format (digits, +, -, parentheses and whitespace, 7-20 characters)
      */
     public static boolean isValidPhone(String phone) {
-        return phone != null && PHONE_PATTERN.matcher(phone).matches();
+        if (phone == null || phone.length() < MIN_PHONE_LENGTH || phone.length() > MAX_PHONE_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (!(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '(' && c != ')' && !isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
-     * Sanitize string input - remove potentially dangerous characters
+     * Sanitize string input - remove potentially dangerous characters.
+     * Trims the input, drops control characters and escapes < > " ' / in one pass.
      */
     public static String sanitize(String input) {
         if (input == null) {
             return "";
         }
         
-        // Remove leading/trailing whitespace
-        String sanitized = input.trim();
-        
-        // Remove control characters
-        sanitized = sanitized.replaceAll("[\\p{Cntrl}]", "");
-        
-        // Escape special characters that could be used in injection attacks
-        sanitized = sanitized.replace("<", "&lt;")
-                            .replace(">", "&gt;")
-                            .replace("\"", "&quot;")
-                            .replace("'", "&#x27;")
-                            .replace("/", "&#x2F;");
+        // Remove leading/trailing whitespace, as String.trim does
+        int start = 0;
+        int end = input.length();
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
         
-        return sanitized;
+        StringBuilder sanitized = null;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            String replacement = escape(c);
+            if (replacement == null) {
+                if (sanitized != null) {
+                    sanitized.append(c);
+                }
+                continue;
+            }
+            if (sanitized == null) {
+                sanitized = new StringBuilder(end - start + 16);
+                sanitized.append(input, start, i);
+            }
+            sanitized.append(replacement);
+        }
+        return sanitized != null ? sanitized.toString() : input.substring(start, end);
     }
     
     /**
@@ -87,7 +162,15 @@ public class InputValidator {
      * Check if string contains only alphanumeric characters
      */
     public static boolean isAlphanumeric(String input) {
-        return input != null && input.matches("^[A-Za-z0-9]+$");
+        if (input == null || input.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < input.length(); i++) {
+            if (!isAsciiLetterOrDigit(input.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
@@ -106,4 +189,38 @@ public class InputValidator {
         
         return sanitized;
     }
+    
+    /**
+     * Replacement for a character when sanitizing: "" to drop it, null to keep it
+     */
+    private static String escape(char c) {
+        if (c < 0x20 || c == 0x7F) {
+            return "";
+        }
+        switch (c) {
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return "&quot;";
+            case '\'':
+                return "&#x27;";
+            case '/':
+                return "&#x2F;";
+            default:
+                return null;
+        }
+    }
+    
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+    
+    /**
+     * Whitespace as matched by \s in a regex: space, tab, line feed, vertical tab, form feed, carriage return
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
 }
@@ -0,0 +1,62 @@
+package com.biblioteca.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Dictionary of canonical string instances for values that repeat across
+ * records, such as authors, genres, publishers and ids referenced by loans.
+ * Interning makes every occurrence of a value share one instance, so loading
+ * many records does not keep a fresh copy per line.
+ * Values are held through weak references: once no document or loan uses a
+ * value any more, such as after its documents are deleted, it is released.
+ * Singleton pattern; safe for concurrent use.
+ */
+public class StringInterner {
+    
+    private static StringInterner instance;
+    
+    private final Map<String, WeakReference<String>> values;
+    
+    private StringInterner() {
+        this.values = new WeakHashMap<>();
+    }
+    
+    public static synchronized StringInterner getInstance() {
+        if (instance == null) {
+            instance = new StringInterner();
+        }
+        return instance;
+    }
+    
+    /**
+     * Get the canonical instance equal to a value, registering it if new
+     */
+    public synchronized String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        WeakReference<String> reference = values.get(value);
+        String canonical = reference != null ? reference.get() : null;
+        if (canonical == null) {
+            values.put(value, new WeakReference<>(value));
+            return value;
+        }
+        return canonical;
+    }
+    
+    /**
+     * Number of distinct values still held
+     */
+    public synchronized int size() {
+        return values.size();
+    }
+    
+    /**
+     * Forget all values; instances already handed out stay valid
+     */
+    public synchronized void clear() {
+        values.clear();
+    }
+}
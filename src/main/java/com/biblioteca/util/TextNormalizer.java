@@ -0,0 +1,100 @@
+package com.biblioteca.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Utility class producing normalised forms of text for indexing and search.
+ */
+public class TextNormalizer {
+    
+    private TextNormalizer() {
+    }
+    
+    /**
+     * Normalise text: lowercase, accent-folded, with runs of whitespace
+     * collapsed to a single space and no leading or trailing whitespace
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = foldAccents(text);
+        StringBuilder sb = new StringBuilder(folded.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Decompose accented characters so their marks can be dropped.
+     * Plain ASCII text, the common case, is returned unchanged.
+     */
+    private static String foldAccents(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return Normalizer.normalize(text, Normalizer.Form.NFD);
+            }
+        }
+        return text;
+    }
+    
+    /**
+     * Whether normalised text contains a token as one of the tokens
+     * {@link #tokenize} would produce, without splitting the text
+     */
+    public static boolean containsToken(String normalizedText, String token) {
+        if (token.isEmpty()) {
+            return false;
+        }
+        int from = 0;
+        int index;
+        while ((index = normalizedText.indexOf(token, from)) >= 0) {
+            int end = index + token.length();
+            boolean startsWord = index == 0 || !Character.isLetterOrDigit(normalizedText.charAt(index - 1));
+            boolean endsWord = end == normalizedText.length()
+                || !Character.isLetterOrDigit(normalizedText.charAt(end));
+            if (startsWord && endsWord) {
+                return true;
+            }
+            from = index + 1;
+        }
+        return false;
+    }
+    
+    /**
+     * Split text into normalised tokens made of letters and digits
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length()
+                && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
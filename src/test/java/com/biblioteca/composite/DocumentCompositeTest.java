@@ -5,8 +5,12 @@ import com.biblioteca.model.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Proxy;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -145,4 +149,164 @@ public class DocumentCompositeTest {
         assertEquals(1, rootCategory.getTotalDocumentCount());
         assertEquals(book1, rootCategory.findDocumentById("B001"));
     }
+    
+    @Test
+    public void testCountsAndIndexPropagateToAncestors() {
+        rootCategory.add(fictionCategory);
+        DocumentLeaf leaf1 = new DocumentLeaf(book1);
+        fictionCategory.add(leaf1);
+        fictionCategory.add(new DocumentLeaf(book2));
+        
+        assertSame(rootCategory, fictionCategory.getParent());
+        assertEquals(2, rootCategory.getTotalDocumentCount());
+        assertEquals(book2, rootCategory.findDocumentById("B002"));
+        
+        fictionCategory.remove(leaf1);
+        assertEquals(1, rootCategory.getTotalDocumentCount());
+        assertNull(rootCategory.findDocumentById("B001"));
+        
+        rootCategory.remove(fictionCategory);
+        assertNull(fictionCategory.getParent());
+        assertEquals(0, rootCategory.getTotalDocumentCount());
+        assertNull(rootCategory.findDocumentById("B002"));
+    }
+    
+    @Test
+    public void testIndexKeepsLeavesSharingAnIdAcrossRemovals() {
+        Document copy = new Book("B001", "Fiction Book 1", "Author A", LocalDate.now(),
+                                 "ISBN1", 100, "Fiction");
+        DocumentLeaf original = new DocumentLeaf(book1);
+        rootCategory.add(fictionCategory);
+        rootCategory.add(scienceCategory);
+        fictionCategory.add(original);
+        fictionCategory.add(new DocumentLeaf(book2));
+        scienceCategory.add(new DocumentLeaf(copy));
+        scienceCategory.add(new DocumentLeaf(book3));
+        
+        assertSame(book1, rootCategory.findDocumentById("B001"));
+        
+        fictionCategory.remove(original);
+        assertSame(copy, rootCategory.findDocumentById("B001"));
+        assertNull(fictionCategory.findDocumentById("B001"));
+        
+        rootCategory.remove(scienceCategory);
+        assertNull(rootCategory.findDocumentById("B001"));
+        assertNull(rootCategory.findDocumentById("B003"));
+        assertSame(copy, scienceCategory.findDocumentById("B001"));
+        assertEquals(1, rootCategory.getTotalDocumentCount());
+    }
+    
+    @Test
+    public void testMovingCategoryUpdatesOldParent() {
+        scienceCategory.add(new DocumentLeaf(book3));
+        fictionCategory.add(scienceCategory);
+        rootCategory.add(scienceCategory);
+        
+        assertEquals(0, fictionCategory.getTotalDocumentCount());
+        assertEquals(1, rootCategory.getTotalDocumentCount());
+        assertSame(rootCategory, scienceCategory.getParent());
+    }
+    
+    @Test
+    public void testCannotAddAncestor() {
+        rootCategory.add(fictionCategory);
+        
+        assertThrows(IllegalArgumentException.class, () -> {
+            fictionCategory.add(rootCategory);
+        });
+    }
+    
+    @Test
+    public void testRejectsUnknownComponents() {
+        DocumentComponent foreign = (DocumentComponent) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] {DocumentComponent.class}, (proxy, method, args) -> null);
+        
+        assertThrows(IllegalArgumentException.class, () -> rootCategory.add(foreign));
+        assertThrows(IllegalArgumentException.class, () -> rootCategory.add(null));
+        assertTrue(rootCategory.getChildren().isEmpty());
+    }
+    
+    @Test
+    public void testStreamingTraversalIsDepthFirst() {
+        fictionCategory.add(new DocumentLeaf(book1));
+        fictionCategory.add(new DocumentLeaf(book2));
+        scienceCategory.add(new DocumentLeaf(book3));
+        rootCategory.add(scienceCategory);
+        rootCategory.add(fictionCategory);
+        
+        List<Document> expected = Arrays.asList(book3, book1, book2);
+        
+        List<Document> visited = new ArrayList<>();
+        rootCategory.forEachDocument(visited::add);
+        assertEquals(expected, visited);
+        
+        assertEquals(expected, rootCategory.streamDocuments().collect(Collectors.toList()));
+        assertEquals(expected, rootCategory.parallelStreamDocuments().collect(Collectors.toList()));
+        assertEquals(expected, rootCategory.getDocuments());
+    }
+    
+    @Test
+    public void testParallelStreamCoversDeepAndUnbalancedTrees() {
+        List<Document> expected = new ArrayList<>();
+        DocumentCategory level = rootCategory;
+        for (int depth = 0; depth < 50; depth++) {
+            Document document = new Book("D" + depth, "Deep " + depth, "Author", LocalDate.now(),
+                                         "ISBN", 10, "Genre");
+            level.add(new DocumentLeaf(document));
+            expected.add(document);
+            DocumentCategory child = new DocumentCategory("Level " + depth);
+            level.add(child);
+            level = child;
+        }
+        
+        assertEquals(expected, rootCategory.parallelStreamDocuments().collect(Collectors.toList()));
+        assertEquals(50, rootCategory.parallelStreamDocuments().count());
+    }
+    
+    @Test
+    public void testTraversalDefaultsSupportComponentsWithOnlyGetDocuments() {
+        // Implements only the methods the interface has always declared
+        DocumentComponent shelf = new DocumentComponent() {
+            @Override
+            public String getName() {
+                return "Shelf";
+            }
+            
+            @Override
+            public void add(DocumentComponent component) {
+                throw new UnsupportedOperationException();
+            }
+            
+            @Override
+            public void remove(DocumentComponent component) {
+                throw new UnsupportedOperationException();
+            }
+            
+            @Override
+            public List<DocumentComponent> getChildren() {
+                return new ArrayList<>();
+            }
+            
+            @Override
+            public List<Document> getDocuments() {
+                return Arrays.asList(book1, book2);
+            }
+            
+            @Override
+            public void display(int depth) {
+            }
+            
+            @Override
+            public boolean isComposite() {
+                return false;
+            }
+        };
+        
+        List<Document> visited = new ArrayList<>();
+        shelf.forEachDocument(visited::add);
+        assertEquals(Arrays.asList(book1, book2), visited);
+        assertEquals(2, shelf.getDocumentCount());
+        assertEquals(visited, shelf.streamDocuments().collect(Collectors.toList()));
+        assertEquals(visited, shelf.parallelStreamDocuments().collect(Collectors.toList()));
+    }
 }
@@ -7,6 +7,7 @@ import com.biblioteca.model.Magazine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.WeakReference;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +31,23 @@ public class DocumentFactoryTest {
         assertSame(instance1, instance2, "Factory should return same instance");
     }
     
+    @Test
+    public void testRepeatedValuesShareOneInstanceOnlyWhileUsed() throws Exception {
+        Document first = factory.createDocument(Document.DocumentType.BOOK, bookBy("B101", new String("Interned Author")));
+        Document second = factory.createDocument(Document.DocumentType.BOOK, bookBy("B102", new String("Interned Author")));
+        assertSame(first.getAuthor(), second.getAuthor());
+        
+        // Once no document holds the value, the interner must let it go
+        WeakReference<String> author = new WeakReference<>(first.getAuthor());
+        first = null;
+        second = null;
+        for (int i = 0; i < 50 && author.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(author.get());
+    }
+    
     @Test
     public void testCreateValidBook() throws InvalidDocumentException {
         DocumentCreationParams params = new DocumentCreationParams.Builder()
@@ -129,4 +147,39 @@ public class DocumentFactoryTest {
             factory.createDocument(Document.DocumentType.BOOK, params);
         });
     }
+    
+    @Test
+    public void testRepeatedValuesShareOneInstance() throws InvalidDocumentException {
+        Document first = factory.createDocument(Document.DocumentType.BOOK,
+            bookParams("B001", new String("Shared Author"), new String("Fiction")));
+        Document second = factory.createDocument(Document.DocumentType.BOOK,
+            bookParams("B002", new String("Shared Author"), new String("Fiction")));
+        
+        assertSame(first.getAuthor(), second.getAuthor());
+        assertSame(((Book) first).getGenre(), ((Book) second).getGenre());
+    }
+    
+    private DocumentCreationParams bookParams(String id, String author, String genre) {
+        return new DocumentCreationParams.Builder()
+            .id(id)
+            .title("Test Book")
+            .author(author)
+            .publicationDate(LocalDate.of(2020, 1, 1))
+            .addExtraParam("isbn", "978-0-123456-78-9")
+            .addExtraParam("pages", "300")
+            .addExtraParam("genre", genre)
+            .build();
+    }
+    
+    private static DocumentCreationParams bookBy(String id, String author) {
+        return new DocumentCreationParams.Builder()
+            .id(id)
+            .title("Shared Author Book")
+            .author(author)
+            .publicationDate(LocalDate.of(2020, 1, 1))
+            .addExtraParam("isbn", "978-0-123456-78-9")
+            .addExtraParam("pages", "100")
+            .addExtraParam("genre", "Fiction")
+            .build();
+    }
 }
@@ -0,0 +1,165 @@
+package com.biblioteca.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CompressedBitmap
+ */
+public class CompressedBitmapTest {
+    
+    @Test
+    public void testAddContainsRemove() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        assertTrue(bitmap.isEmpty());
+        
+        bitmap.add(3);
+        bitmap.add(70000);
+        bitmap.add(3);
+        
+        assertTrue(bitmap.contains(3));
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(4));
+        assertEquals(2, bitmap.cardinality());
+        
+        bitmap.remove(3);
+        assertFalse(bitmap.contains(3));
+        assertArrayEquals(new int[] {70000}, bitmap.toArray());
+    }
+    
+    @Test
+    public void testNextSetBitAcrossChunks() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(10);
+        bitmap.add(200000);
+        
+        assertEquals(10, bitmap.nextSetBit(0));
+        assertEquals(200000, bitmap.nextSetBit(11));
+        assertEquals(-1, bitmap.nextSetBit(200001));
+    }
+    
+    @Test
+    public void testRange() {
+        CompressedBitmap bitmap = CompressedBitmap.range(5, 140000);
+        
+        assertEquals(139995, bitmap.cardinality());
+        assertFalse(bitmap.contains(4));
+        assertTrue(bitmap.contains(5));
+        assertTrue(bitmap.contains(139999));
+        assertFalse(bitmap.contains(140000));
+    }
+    
+    @Test
+    public void testSetOperationsMatchBitSet() {
+        Random random = new Random(42);
+        CompressedBitmap sparse = new CompressedBitmap();
+        CompressedBitmap dense = new CompressedBitmap();
+        BitSet sparseExpected = new BitSet();
+        BitSet denseExpected = new BitSet();
+        
+        for (int i = 0; i < 300000; i++) {
+            if (random.nextInt(100) == 0) {
+                sparse.add(i);
+                sparseExpected.set(i);
+            }
+            if (random.nextInt(100) < 70) {
+                dense.add(i);
+                denseExpected.set(i);
+            }
+        }
+        
+        BitSet and = (BitSet) sparseExpected.clone();
+        and.and(denseExpected);
+        assertBitmapEquals(and, sparse.and(dense));
+        assertBitmapEquals(and, dense.and(sparse));
+        
+        BitSet andNot = (BitSet) denseExpected.clone();
+        andNot.andNot(sparseExpected);
+        assertBitmapEquals(andNot, dense.andNot(sparse));
+        
+        BitSet or = (BitSet) sparseExpected.clone();
+        or.or(denseExpected);
+        assertBitmapEquals(or, sparse.or(dense));
+    }
+    
+    @Test
+    public void testDenseChunkShrinksAfterRemovals() {
+        CompressedBitmap bitmap = CompressedBitmap.range(0, 10000);
+        for (int i = 0; i < 9990; i++) {
+            bitmap.remove(i);
+        }
+        
+        assertEquals(10, bitmap.cardinality());
+        assertEquals(9990, bitmap.nextSetBit(0));
+    }
+    
+    @Test
+    public void testDenseAndNotSparseDropsBelowTheArrayLimit() {
+        CompressedBitmap dense = CompressedBitmap.range(0, 5000);
+        CompressedBitmap sparse = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        expected.set(0, 5000);
+        for (int i = 0; i < 5000; i += 2) {
+            sparse.add(i);
+            expected.clear(i);
+        }
+        sparse.add(70000);
+        
+        assertBitmapEquals(expected, dense.andNot(sparse));
+        assertEquals(5000, dense.cardinality());
+    }
+    
+    @Test
+    public void testRemoveAndShiftMatchesArrayDeletion() {
+        Random random = new Random(5);
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 200000; i++) {
+            // Dense first chunk, sparse after it
+            if (random.nextInt(100) < (i < 65536 ? 80 : 3)) {
+                bitmap.add(i);
+                expected.set(i);
+            }
+        }
+        bitmap.add(65536);
+        expected.set(65536);
+        
+        for (int position : new int[] {65535, 65535, 0, 131072, 199990, 250000, 70000, 12345}) {
+            bitmap.removeAndShift(position);
+            BitSet shifted = expected.get(0, position);
+            for (int v = expected.nextSetBit(position + 1); v >= 0; v = expected.nextSetBit(v + 1)) {
+                shifted.set(v - 1);
+            }
+            expected = shifted;
+            assertBitmapEquals(expected, bitmap);
+        }
+    }
+    
+    private void assertBitmapEquals(BitSet expected, CompressedBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertArrayEquals(expected.stream().toArray(), actual.toArray());
+    }
+    
+    @Test
+    public void testAndCardinalityMatchesIntersection() {
+        Random random = new Random(7);
+        CompressedBitmap sparse = new CompressedBitmap();
+        CompressedBitmap dense = CompressedBitmap.range(0, 150000);
+        for (int i = 0; i < 3000; i++) {
+            sparse.add(random.nextInt(200000));
+        }
+        CompressedBitmap evens = new CompressedBitmap();
+        for (int i = 0; i < 200000; i += 2) {
+            evens.add(i);
+        }
+        
+        assertEquals(sparse.and(dense).cardinality(), sparse.andCardinality(dense));
+        assertEquals(dense.and(evens).cardinality(), dense.andCardinality(evens));
+        assertEquals(75000, evens.andCardinality(dense));
+        assertEquals(0, new CompressedBitmap().andCardinality(dense));
+    }
+}
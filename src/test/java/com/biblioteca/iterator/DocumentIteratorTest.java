@@ -1,12 +1,21 @@
 package com.biblioteca.iterator;
 
+import com.biblioteca.index.FacetIndex;
 import com.biblioteca.model.Book;
 import com.biblioteca.model.Document;
+import com.biblioteca.model.Magazine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -121,4 +130,231 @@ public class DocumentIteratorTest {
         collection.add(doc1);
         assertFalse(collection.isEmpty());
     }
+    
+    @Test
+    public void testSnapshotIsStable() {
+        collection.add(doc1);
+        List<Document> snapshot = collection.getAll();
+        long version = collection.getVersion();
+        
+        collection.add(doc2);
+        collection.remove(doc1);
+        
+        assertEquals(1, snapshot.size());
+        assertEquals(doc1, snapshot.get(0));
+        assertEquals(1, collection.size());
+        assertEquals(doc2, collection.get(0));
+        assertTrue(collection.getVersion() > version);
+    }
+    
+    @Test
+    public void testSnapshotIsImmutableAndShared() {
+        collection.add(doc1);
+        
+        List<Document> snapshot = collection.getAll();
+        assertSame(snapshot, collection.getAll());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(doc2));
+    }
+    
+    @Test
+    public void testAddAll() {
+        collection.add(doc1);
+        collection.addAll(Arrays.asList(doc2, null, doc3));
+        
+        assertEquals(3, collection.size());
+        assertEquals(doc3, collection.get(2));
+    }
+    
+    @Test
+    public void testSpliteratorSplitsWithoutLosingElements() {
+        collection.addAll(Arrays.asList(doc1, doc2, doc3));
+        
+        Spliterator<Document> right = collection.spliterator();
+        Spliterator<Document> left = right.trySplit();
+        
+        assertNotNull(left);
+        assertEquals(3, left.estimateSize() + right.estimateSize());
+        
+        List<Document> seen = new ArrayList<>();
+        left.forEachRemaining(seen::add);
+        right.forEachRemaining(seen::add);
+        assertEquals(Arrays.asList(doc1, doc2, doc3), seen);
+        
+        // Scans over the snapshot list split the same array instead of copying it
+        assertTrue(collection.getAll().spliterator() instanceof DocumentSpliterator);
+    }
+    
+    @Test
+    public void testParallelStreamPreservesOrder() {
+        for (int i = 0; i < 1000; i++) {
+            collection.add(new Book("P" + i, "Title " + i, "Author", LocalDate.now(),
+                                   "ISBN", 10, "Genre"));
+        }
+        
+        List<String> ids = collection.parallelStream()
+            .map(Document::getId)
+            .collect(Collectors.toList());
+        
+        assertEquals(1000, ids.size());
+        assertEquals("P0", ids.get(0));
+        assertEquals("P999", ids.get(999));
+        assertEquals(collection.stream().count(), collection.size());
+    }
+    
+    @Test
+    public void testFilteredStreamVisitsOnlyCandidates() {
+        List<Document> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Document document = new Book("P" + i, "Title " + i, "Author", LocalDate.now(),
+                                         "ISBN", 10, "Genre");
+            collection.add(document);
+            if (i % 3 == 0) {
+                collection.setAvailable(document, false);
+            } else if (i % 2 == 0) {
+                expected.add(document);
+            }
+        }
+        DocumentFilter filter = new DocumentFilter.Builder()
+            .available(true)
+            .matching(doc -> Integer.parseInt(doc.getId().substring(1)) % 2 == 0)
+            .build();
+        
+        assertEquals(expected, collection.stream(filter).collect(Collectors.toList()));
+        assertEquals(expected, collection.parallelStream(filter).collect(Collectors.toList()));
+        assertEquals(expected.size(), collection.count(filter));
+        
+        Spliterator<Document> spliterator = new DocumentSpliterator(
+            collection.getAll().toArray(new Document[0]), collection.positionsOf(filter));
+        List<Document> available = new ArrayList<>();
+        while (spliterator.tryAdvance(available::add)) {
+            assertTrue(available.get(available.size() - 1).isAvailable());
+        }
+        assertEquals(666, available.size());
+    }
+    
+    @Test
+    public void testFilteredIteratorUsesIndexedAndResidualCriteria() {
+        Document magazine = new Magazine("M001", "Magazine", "Editor", LocalDate.of(2021, 1, 1),
+                                        1, "Publisher", "Monthly");
+        doc1.setPublicationDate(LocalDate.of(2005, 1, 1));
+        doc2.setPublicationDate(LocalDate.of(2015, 1, 1));
+        doc3.setPublicationDate(LocalDate.of(2020, 1, 1));
+        collection.addAll(Arrays.asList(doc1, doc2, doc3, magazine));
+        collection.setAvailable(doc3, false);
+        
+        DocumentFilter filter = new DocumentFilter.Builder()
+            .available(true)
+            .type(Document.DocumentType.BOOK)
+            .matching(doc -> doc.getPublicationDate().isAfter(LocalDate.of(2010, 1, 1)))
+            .build();
+        
+        Iterator<Document> iterator = collection.createFilteredIterator(filter);
+        assertTrue(iterator.hasNext());
+        assertEquals(doc2, iterator.next());
+        assertFalse(iterator.hasNext());
+        
+        iterator.reset();
+        assertEquals(doc2, iterator.next());
+        
+        assertEquals(3, collection.count(new DocumentFilter.Builder().available(true).build()));
+        assertEquals(1, collection.count(new DocumentFilter.Builder().available(false).build()));
+        assertEquals(1, collection.count(
+            new DocumentFilter.Builder().type(Document.DocumentType.MAGAZINE).build()));
+        assertEquals(0, collection.count(
+            new DocumentFilter.Builder().type(Document.DocumentType.DVD).build()));
+    }
+    
+    @Test
+    public void testIndexesFollowRemoval() {
+        collection.addAll(Arrays.asList(doc1, doc2, doc3));
+        collection.setAvailable(doc3, false);
+        collection.remove(doc1);
+        
+        assertNull(collection.findById("B001"));
+        assertEquals(doc3, collection.findById("B003"));
+        
+        Iterator<Document> iterator = collection.createFilteredIterator(
+            new DocumentFilter.Builder().available(false).build());
+        assertEquals(doc3, iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+    
+    @Test
+    public void testIncrementalRemovalMatchesRebuiltIndexes() {
+        Random random = new Random(9);
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Document document = i % 3 == 0
+                ? new Magazine("M" + i, "Magazine " + i, "Editor", LocalDate.of(1990 + i % 30, 1, 1),
+                               i, "Publisher " + i % 4, "Monthly")
+                : new Book("B" + i, "Book " + i, "Author", LocalDate.of(1990 + i % 30, 1, 1),
+                           "ISBN" + i, 100, "Genre " + i % 5);
+            document.setAvailable(random.nextBoolean());
+            documents.add(document);
+        }
+        documents.add(new Book("B10", "Second B10", "Author", LocalDate.of(2001, 1, 1), "ISBN", 100, "Genre 9"));
+        collection.addAll(documents);
+        collection.remove(collection.findById("B10"));
+        assertEquals("Second B10", collection.findById("B10").getTitle());
+        
+        while (collection.size() > 150) {
+            collection.remove(collection.get(random.nextInt(collection.size())));
+            
+            DocumentCollection rebuilt = new DocumentCollection();
+            rebuilt.addAll(collection.getAll());
+            for (boolean available : new boolean[] {true, false}) {
+                for (Document.DocumentType type : Document.DocumentType.values()) {
+                    DocumentFilter filter = new DocumentFilter.Builder().type(type).available(available).build();
+                    assertArrayEquals(rebuilt.positionsOf(filter).toArray(), collection.positionsOf(filter).toArray());
+                }
+            }
+            assertEquals(rebuilt.facetCounts(), collection.facetCounts());
+            for (Document document : collection.getAll()) {
+                assertSame(rebuilt.findById(document.getId()), collection.findById(document.getId()));
+            }
+        }
+    }
+    
+    @Test
+    public void testChunkedIterator() {
+        collection.addAll(Arrays.asList(doc1, doc2, doc3));
+        
+        Iterator<List<Document>> chunks = collection.createChunkedIterator(
+            new DocumentFilter.Builder().build(), 2);
+        
+        assertEquals(Arrays.asList(doc1, doc2), chunks.next());
+        assertEquals(Arrays.asList(doc3), chunks.next());
+        assertFalse(chunks.hasNext());
+        assertEquals(2, chunks.getCurrentPosition());
+        assertThrows(IllegalArgumentException.class,
+            () -> collection.createChunkedIterator(new DocumentFilter.Builder().build(), 0));
+    }
+    
+    @Test
+    public void testFacetCounts() {
+        Document magazine = new Magazine("M001", "Magazine", "Editor", LocalDate.of(2021, 1, 1),
+                                        1, "Publisher", "Monthly");
+        doc1.setPublicationDate(LocalDate.of(2005, 6, 1));
+        doc2.setPublicationDate(LocalDate.of(2009, 6, 1));
+        doc3.setPublicationDate(LocalDate.of(2015, 6, 1));
+        collection.addAll(Arrays.asList(doc1, doc2, doc3, magazine));
+        
+        Map<FacetIndex.Facet, Map<String, Integer>> all = collection.facetCounts();
+        assertEquals(Map.of("BOOK", 3, "MAGAZINE", 1), all.get(FacetIndex.Facet.TYPE));
+        assertEquals(Map.of("Fiction", 1, "Science", 1, "History", 1), all.get(FacetIndex.Facet.GENRE));
+        assertEquals(Map.of("Publisher", 1), all.get(FacetIndex.Facet.PUBLISHER));
+        assertEquals(Arrays.asList("2000s", "2010s", "2020s"),
+                     new ArrayList<>(all.get(FacetIndex.Facet.DECADE).keySet()));
+        
+        Map<FacetIndex.Facet, Map<String, Integer>> results = collection.facetCounts(Arrays.asList(doc1, magazine));
+        assertEquals(Map.of("BOOK", 1, "MAGAZINE", 1), results.get(FacetIndex.Facet.TYPE));
+        assertEquals(Map.of("Fiction", 1), results.get(FacetIndex.Facet.GENRE));
+        assertEquals(Map.of("2000s", 1, "2020s", 1), results.get(FacetIndex.Facet.DECADE));
+        
+        // Positions shift on removal; the counts must follow
+        collection.remove(doc1);
+        results = collection.facetCounts(Arrays.asList(doc2, doc3));
+        assertEquals(Map.of("BOOK", 2), results.get(FacetIndex.Facet.TYPE));
+        assertEquals(Map.of("2000s", 1, "2010s", 1), results.get(FacetIndex.Facet.DECADE));
+    }
 }
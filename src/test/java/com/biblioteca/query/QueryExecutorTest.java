@@ -0,0 +1,171 @@
+package com.biblioteca.query;
+
+import com.biblioteca.exception.InvalidInputException;
+import com.biblioteca.index.CompressedBitmap;
+import com.biblioteca.index.DateRangeIndex;
+import com.biblioteca.index.InvertedIndex;
+import com.biblioteca.iterator.DocumentCollection;
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Document;
+import com.biblioteca.model.Magazine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the query language and its execution plans
+ */
+public class QueryExecutorTest {
+    
+    private DocumentCollection collection;
+    private DateRangeIndex dateRangeIndex;
+    private QueryExecutor executor;
+    
+    @BeforeEach
+    public void setUp() {
+        collection = new DocumentCollection();
+        InvertedIndex invertedIndex = new InvertedIndex();
+        dateRangeIndex = new DateRangeIndex();
+        collection.addIndex(invertedIndex);
+        collection.addIndex(dateRangeIndex);
+        executor = new QueryExecutor(collection, invertedIndex, dateRangeIndex);
+        
+        collection.add(new Book("B001", "Cien Anos de Soledad", "Gabriel Garcia", 
+                               LocalDate.of(1967, 5, 30), "ISBN1", 400, "Novel"));
+        collection.add(new Book("B002", "Modern Garden Design", "Ana Garcia",
+                               LocalDate.of(2015, 3, 1), "ISBN2", 200, "Home"));
+        collection.add(new Book("B003", "Data Structures", "John Doe",
+                               LocalDate.of(2012, 1, 1), "ISBN3", 500, "CS"));
+        collection.add(new Magazine("M001", "Garcia Monthly", "Luis Garcia",
+                                   LocalDate.of(2020, 6, 1), 12, "Press", "Monthly"));
+    }
+    
+    @Test
+    public void testFieldedBooleanQuery() throws InvalidInputException {
+        QueryResult result = executor.execute("author:garcia AND type:BOOK AND year>=2010 NOT available:false");
+        
+        List<Document> documents = result.getDocuments();
+        assertEquals(1, documents.size());
+        assertEquals("B002", documents.get(0).getId());
+    }
+    
+    @Test
+    public void testNotExcludesUnavailable() throws InvalidInputException {
+        collection.setAvailable(collection.findById("B002"), false);
+        
+        QueryResult result = executor.execute("author:garcia AND type:BOOK NOT available:false");
+        assertEquals(1, result.getDocuments().size());
+        assertEquals("B001", result.getDocuments().get(0).getId());
+    }
+    
+    @Test
+    public void testPlanIntersectsCheapestFirstAndScansOnlyResiduals() throws InvalidInputException {
+        QueryResult result = executor.execute("type:BOOK AND author:gabriel AND pages<450");
+        List<String> plan = result.getPlan();
+        
+        assertTrue(plan.get(1).startsWith("INDEX author:gabriel"));
+        assertTrue(plan.get(2).startsWith("BITMAP type:BOOK"));
+        assertTrue(plan.get(3).startsWith("SCAN pages<450 over 1 candidates"));
+        assertTrue(result.explain().contains("1. INDEX author:gabriel"));
+        assertEquals(1, result.getDocuments().size());
+    }
+    
+    @Test
+    public void testYearRangesUseTheDateIndex() throws InvalidInputException {
+        QueryResult result = executor.execute("year>=2012 AND year<2020");
+        assertEquals(2, result.getDocuments().size());
+        assertTrue(result.getPlan().stream().noneMatch(step -> step.startsWith("SCAN")));
+        assertTrue(result.getPlan().get(1).startsWith("RANGE"));
+        
+        assertEquals(1, executor.execute("year=1967").getDocuments().size());
+        assertEquals(1, executor.execute("year>2015").getDocuments().size());
+        assertEquals(2, executor.execute("year<=2012").getDocuments().size());
+        assertTrue(executor.execute("year>2147483647").getDocuments().isEmpty());
+        assertEquals(4, executor.execute("year>-2147483648").getDocuments().size());
+        assertEquals(1, executor.execute("garcia NOT year<2016").getDocuments().size());
+    }
+    
+    @Test
+    public void testUnindexedNodesEvaluateByScanning() throws InvalidInputException {
+        QueryContext context = new QueryContext(collection, new InvertedIndex(), new DateRangeIndex());
+        
+        CompressedBitmap thick = new RangeQuery(QueryField.PAGES, RangeQuery.Operator.GE, 400).evaluate(context);
+        assertEquals(List.of("B001", "B003"), ids(collection.documentsAt(thick)));
+        CompressedBitmap home = new TermQuery(QueryField.GENRE, "home").evaluate(context);
+        assertEquals(List.of("B002"), ids(collection.documentsAt(home)));
+        assertEquals(3, executor.execute("pages>=400 OR genre:home").getDocuments().size());
+    }
+    
+    @Test
+    public void testSelectiveYearRangesLeadTheIntersection() throws InvalidInputException {
+        QueryContext context = new QueryContext(collection, new InvertedIndex(), dateRangeIndex);
+        assertEquals(1, new RangeQuery(QueryField.YEAR, RangeQuery.Operator.EQ, 1967).estimate(context));
+        assertEquals(2, new RangeQuery(QueryField.YEAR, RangeQuery.Operator.LT, 2015).estimate(context));
+        assertEquals(0, new RangeQuery(QueryField.YEAR, RangeQuery.Operator.GT, Integer.MAX_VALUE).estimate(context));
+        
+        QueryResult result = executor.execute("type:BOOK AND year=1967");
+        assertTrue(result.getPlan().get(1).startsWith("RANGE year=1967"));
+        assertEquals(List.of("B001"), ids(result.getDocuments()));
+    }
+    
+    @Test
+    public void testTermsWithoutTokensMatchNothingEitherWay() {
+        QueryContext context = new QueryContext(collection, new InvertedIndex(), dateRangeIndex);
+        for (QueryField field : List.of(QueryField.TITLE, QueryField.AUTHOR, QueryField.ID)) {
+            TermQuery empty = new TermQuery(field, "--");
+            assertEquals(0, empty.estimate(context));
+            assertTrue(empty.evaluate(context).isEmpty());
+            assertTrue(collection.getAll().stream().noneMatch(empty::matches));
+        }
+        
+        // Residual matching agrees with the tokenised index on whole words only
+        TermQuery data = new TermQuery(QueryField.TITLE, "data");
+        TermQuery partial = new TermQuery(QueryField.TITLE, "dat");
+        assertTrue(data.matches(collection.findById("B003")));
+        assertFalse(partial.matches(collection.findById("B003")));
+        assertTrue(new TermQuery(QueryField.AUTHOR, "GARCÍA ana").matches(collection.findById("B002")));
+    }
+    
+    @Test
+    public void testParsingIgnoresTheDefaultLocale() throws InvalidInputException {
+        Locale original = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertEquals(1, executor.execute("type:magazine").getDocuments().size());
+            assertEquals(2, executor.execute("title:garcia OR isbn:isbn1").getDocuments().size());
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+    
+    @Test
+    public void testOrParenthesesAndBareWords() throws InvalidInputException {
+        QueryResult result = executor.execute("(title:\"data structures\" OR genre:home) AND NOT doe");
+        assertEquals(1, result.getDocuments().size());
+        assertEquals("B002", result.getDocuments().get(0).getId());
+        
+        result = executor.execute("garcia");
+        assertEquals(3, result.getDocuments().size());
+        assertTrue(result.getPlan().get(1).startsWith("INDEX"));
+    }
+    
+    @Test
+    public void testInvalidQueries() {
+        assertThrows(InvalidInputException.class, () -> executor.execute(""));
+        assertThrows(InvalidInputException.class, () -> executor.execute("color:red"));
+        assertThrows(InvalidInputException.class, () -> executor.execute("type:BOOKLET"));
+        assertThrows(InvalidInputException.class, () -> executor.execute("(author:garcia"));
+        assertThrows(InvalidInputException.class, () -> executor.execute("year>=twenty"));
+        assertThrows(InvalidInputException.class, () -> executor.execute("author>garcia"));
+    }
+    
+    private static List<String> ids(List<Document> documents) {
+        return documents.stream().map(Document::getId).collect(Collectors.toList());
+    }
+}
@@ -5,14 +5,34 @@ import com.biblioteca.factory.DocumentCreationParams;
 import com.biblioteca.io.DataPersistence;
 import com.biblioteca.io.FileManager;
 import com.biblioteca.model.*;
+import com.biblioteca.observer.Observer;
+import com.biblioteca.strategy.SearchPage;
+import com.biblioteca.strategy.TitleSearchStrategy;
+import com.biblioteca.util.EpochDay;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,6 +101,43 @@ public class LibraryServiceTest {
         });
     }
     
+    @Test
+    public void testFindBookByIsbnAndReportCopiesSharingIt() throws LibraryException {
+        DocumentCreationParams params = new DocumentCreationParams.Builder()
+            .id("B001")
+            .title("Test Book")
+            .author("Test Author")
+            .publicationDate(LocalDate.now())
+            .addExtraParam("isbn", "978-0-321-35668-0")
+            .addExtraParam("pages", "300")
+            .addExtraParam("genre", "Fiction")
+            .build();
+        assertTrue(libraryService.addDocument(Document.DocumentType.BOOK, params).isEmpty());
+        
+        assertEquals("B001", libraryService.findBookByIsbn("0-321-35668-3").getId());
+        
+        DocumentCreationParams sameIsbn = new DocumentCreationParams.Builder()
+            .id("B002")
+            .title("Another Book")
+            .author("Test Author")
+            .publicationDate(LocalDate.now())
+            .addExtraParam("isbn", "9780321356680")
+            .addExtraParam("pages", "300")
+            .addExtraParam("genre", "Fiction")
+            .build();
+        List<Book> copies = libraryService.addDocument(Document.DocumentType.BOOK, sameIsbn);
+        
+        // A second copy of the same title is catalogued, and the existing one reported
+        assertEquals(1, copies.size());
+        assertEquals("B001", copies.get(0).getId());
+        assertNotNull(libraryService.findDocumentById("B002"));
+        assertEquals("B001", libraryService.findBookByIsbn("9780321356680").getId());
+        assertEquals(Arrays.asList("B001", "B002"), libraryService.findBooksByIsbn("0321356683").stream()
+            .map(Document::getId).collect(Collectors.toList()));
+        assertEquals(2, libraryService.searchDocuments("978-0-321-35668-0",
+            libraryService.getIsbnSearchStrategy()).size());
+    }
+    
     @Test
     public void testFindNonExistentDocument() {
         Document doc = libraryService.findDocumentById("NONEXISTENT");
@@ -159,6 +216,63 @@ public class LibraryServiceTest {
         assertFalse(activeLoans.contains(loan));
     }
     
+    @Test
+    public void testLoanBecomesOverdueWhenTheDayChanges() throws LibraryException {
+        ZoneId zone = ZoneId.of("UTC");
+        Instant start = LocalDate.of(2024, 3, 1).atStartOfDay(zone).toInstant();
+        EpochDay.useClock(Clock.fixed(start, zone));
+        try {
+            addTestBook("B001");
+            Loan loan = libraryService.createLoan("U001", "B001");
+            assertEquals(LocalDate.of(2024, 3, 1), loan.getLoanDate());
+            assertEquals(LocalDate.of(2024, 3, 15), loan.getDueDate());
+            assertFalse(loan.isOverdue());
+            
+            EpochDay.useClock(Clock.fixed(start.plus(Duration.ofDays(14)).plusMillis(-1), zone));
+            assertFalse(loan.isOverdue());
+            EpochDay.useClock(Clock.fixed(start.plus(Duration.ofDays(15)), zone));
+            assertTrue(loan.isOverdue());
+            assertEquals(1, libraryService.getOverdueLoans().size());
+            
+            libraryService.returnDocument(loan.getLoanId());
+            assertEquals(LocalDate.of(2024, 3, 16), loan.getReturnDate());
+            assertFalse(loan.isOverdue());
+        } finally {
+            EpochDay.useClock(null);
+        }
+    }
+    
+    @Test
+    public void testCachedDayRefreshesWhenTheClockPassesMidnight() throws LibraryException {
+        ZoneId zone = ZoneId.of("UTC");
+        Instant start = LocalDate.of(2024, 3, 1).atStartOfDay(zone).toInstant();
+        MutableClock clock = new MutableClock(start, zone);
+        EpochDay.useClock(clock);
+        try {
+            addTestBook("B001");
+            Loan loan = libraryService.createLoan("U001", "B001");
+            assertEquals(LocalDate.of(2024, 3, 15), loan.getDueDate());
+            
+            // Only the clock moves; the cached day must notice midnight by itself
+            clock.instant = start.plus(Duration.ofDays(1)).minusMillis(1);
+            assertEquals(LocalDate.of(2024, 3, 1), EpochDay.currentDate());
+            clock.instant = start.plus(Duration.ofDays(1));
+            assertEquals(LocalDate.of(2024, 3, 2), EpochDay.currentDate());
+            
+            clock.instant = start.plus(Duration.ofDays(15)).minusMillis(1);
+            assertFalse(loan.isOverdue());
+            clock.instant = start.plus(Duration.ofDays(15));
+            assertTrue(loan.isOverdue());
+            assertEquals(1, libraryService.getOverdueLoans().size());
+            
+            // A clock set back is picked up as well
+            clock.instant = start;
+            assertFalse(loan.isOverdue());
+        } finally {
+            EpochDay.useClock(null);
+        }
+    }
+    
     @Test
     public void testReturnNonExistentLoan() {
         assertThrows(LibraryException.class, () -> {
@@ -166,6 +280,133 @@ public class LibraryServiceTest {
         });
     }
     
+    @Test
+    public void testUserTracksCurrentLoans() throws LibraryException {
+        addTestBook("B001");
+        addTestBook("B002");
+        Loan first = libraryService.createLoan("U001", "B001");
+        libraryService.createLoan("U001", "B002");
+        
+        Set<String> loans = testUser.getCurrentLoans();
+        assertEquals(Arrays.asList("B001", "B002"), new ArrayList<>(loans));
+        assertEquals(2, testUser.getLoanCount());
+        assertEquals(3, testUser.getRemainingLoans());
+        assertTrue(testUser.hasLoan("B002"));
+        assertThrows(UnsupportedOperationException.class, () -> loans.add("B003"));
+        
+        libraryService.returnDocument(first.getLoanId());
+        assertFalse(testUser.hasLoan("B001"));
+        assertEquals(Collections.singleton("B002"), loans);
+        assertEquals(1, testUser.getLoanCount());
+        
+        testUser.setCurrentLoans(testUser.getCurrentLoans());
+        assertEquals(Collections.singleton("B002"), loans);
+    }
+    
+    @Test
+    public void testBatchLoansAndReturnsNotifyOnce() throws LibraryException {
+        addTestBook("B001");
+        addTestBook("B002");
+        addTestBook("B003");
+        List<String> messages = new ArrayList<>();
+        libraryService.getNotificationSystem().attach(new Observer() {
+            @Override
+            public void update(String message) {
+                messages.add(message);
+            }
+            
+            @Override
+            public String getObserverName() {
+                return "Recorder";
+            }
+        });
+        
+        List<Loan> created = libraryService.createLoans("U001", Arrays.asList("B001", "B002", "B003"));
+        
+        assertEquals(3, created.size());
+        assertEquals(3, testUser.getLoanCount());
+        assertFalse(libraryService.findDocumentById("B002").isAvailable());
+        assertEquals(1, messages.size());
+        
+        libraryService.returnDocuments(Arrays.asList(created.get(0).getLoanId(), created.get(2).getLoanId()));
+        
+        assertEquals(Collections.singleton("B002"), testUser.getCurrentLoans());
+        assertTrue(libraryService.findDocumentById("B003").isAvailable());
+        assertEquals(2, messages.size());
+        assertTrue(messages.get(1).contains("B001, B003"));
+    }
+    
+    @Test
+    public void testBatchLoansAreAllOrNothing() throws LibraryException {
+        addTestBook("B001");
+        addTestBook("B002");
+        Loan existing = libraryService.createLoan("U001", "B002");
+        
+        assertThrows(LibraryException.class, () ->
+            libraryService.createLoans("U001", Arrays.asList("B001", "B002")));
+        assertThrows(DocumentNotFoundException.class, () ->
+            libraryService.createLoans("U001", Arrays.asList("B001", "MISSING")));
+        assertThrows(InvalidInputException.class, () ->
+            libraryService.createLoans("U001", Arrays.asList("B001", "B001")));
+        assertTrue(libraryService.findDocumentById("B001").isAvailable());
+        assertEquals(1, testUser.getLoanCount());
+        assertEquals(1, libraryService.getActiveLoans().size());
+        
+        assertThrows(LibraryException.class, () ->
+            libraryService.returnDocuments(Arrays.asList(existing.getLoanId(), "NONEXISTENT")));
+        assertEquals(Loan.LoanStatus.ACTIVE, existing.getStatus());
+        assertFalse(libraryService.findDocumentById("B002").isAvailable());
+    }
+    
+    @Test
+    public void testConcurrentBatchLoansNeverLendADocumentTwice() throws Exception {
+        int kiosks = 6;
+        for (int i = 1; i <= 12; i++) {
+            addTestBook("B" + String.format("%03d", i));
+        }
+        for (int k = 0; k < kiosks; k++) {
+            libraryService.registerUser(new User("K" + k, "Kiosk " + k, "k" + k + "@example.com",
+                                                 "1234567890", User.UserType.TEACHER));
+        }
+        
+        // Every basket overlaps its neighbours
+        ExecutorService pool = Executors.newFixedThreadPool(kiosks);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Loan>>> results = new ArrayList<>();
+        for (int k = 0; k < kiosks; k++) {
+            String userId = "K" + k;
+            List<String> basket = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                basket.add("B" + String.format("%03d", (k * 2 + i) % 12 + 1));
+            }
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    return libraryService.createLoans(userId, basket);
+                } catch (LibraryException e) {
+                    return Collections.<Loan>emptyList();
+                }
+            }));
+        }
+        start.countDown();
+        
+        Set<String> lent = new HashSet<>();
+        Set<String> loanIds = new HashSet<>();
+        for (Future<List<Loan>> result : results) {
+            for (Loan loan : result.get(10, TimeUnit.SECONDS)) {
+                assertTrue(lent.add(loan.getDocumentId()), "Lent twice: " + loan.getDocumentId());
+                assertTrue(loanIds.add(loan.getLoanId()), "Duplicate loan id: " + loan.getLoanId());
+            }
+        }
+        pool.shutdown();
+        
+        assertFalse(lent.isEmpty());
+        assertEquals(lent.size(), libraryService.getActiveLoans().size());
+        for (String documentId : lent) {
+            assertFalse(libraryService.findDocumentById(documentId).isAvailable());
+        }
+    }
+    
     @Test
     public void testGetStatistics() throws LibraryException {
         addTestBook("B001");
@@ -210,6 +451,131 @@ public class LibraryServiceTest {
         });
     }
     
+    @Test
+    public void testAvailableDocumentsFollowLoans() throws LibraryException {
+        addTestBook("B001");
+        addTestBook("B002");
+        Loan loan = libraryService.createLoan("U001", "B001");
+        
+        assertEquals(1, libraryService.getAvailableDocuments().size());
+        assertEquals("B002", libraryService.getAvailableDocuments().get(0).getId());
+        assertEquals(1, libraryService.searchAvailableDocuments(
+            "Book", new TitleSearchStrategy()).size());
+        
+        libraryService.returnDocument(loan.getLoanId());
+        assertEquals(2, libraryService.getAvailableDocuments().size());
+        assertEquals(2, libraryService.getStatistics().get("availableDocuments"));
+    }
+    
+    @Test
+    public void testSearchPagesSurviveLoansButNotCatalogChanges() throws LibraryException {
+        for (int i = 1; i <= 5; i++) {
+            addTestBook("B00" + i);
+        }
+        SearchPage first = libraryService.searchDocumentsPage("book", new TitleSearchStrategy(), 0, 2);
+        libraryService.createLoan("U001", "B003");
+        
+        SearchPage second = libraryService.searchDocumentsPage(
+            "book", new TitleSearchStrategy(), first.getNextToken(), 2);
+        assertEquals(2, second.getOffset());
+        assertEquals("B003", second.getDocuments().get(0).getId());
+        
+        addTestBook("B006");
+        assertThrows(InvalidInputException.class, () -> libraryService.searchDocumentsPage(
+            "book", new TitleSearchStrategy(), second.getNextToken(), 2));
+    }
+    
+    @Test
+    public void testRepeatedPageSearchesAreServedFromTheCache() throws LibraryException {
+        for (int i = 1; i <= 5; i++) {
+            addTestBook("B00" + i);
+        }
+        Map<String, Integer> before = libraryService.getStatistics();
+        
+        SearchPage first = libraryService.searchDocumentsPage("book", new TitleSearchStrategy(), 0, 2);
+        SearchPage second = libraryService.searchDocumentsPage(
+            "book", new TitleSearchStrategy(), first.getNextToken(), 2);
+        SearchPage again = libraryService.searchDocumentsPage(" book ", new TitleSearchStrategy(), 0, 2);
+        
+        assertEquals(first.getDocuments(), again.getDocuments());
+        assertEquals("B003", second.getDocuments().get(0).getId());
+        Map<String, Integer> after = libraryService.getStatistics();
+        assertEquals(before.get("searchCacheMisses") + 1, after.get("searchCacheMisses"));
+        assertEquals(before.get("searchCacheHits") + 2, after.get("searchCacheHits"));
+        
+        // Whole-list searches share the entry the pages filled
+        assertEquals(5, libraryService.searchDocuments("book", new TitleSearchStrategy()).size());
+        assertEquals(before.get("searchCacheHits") + 3, libraryService.getStatistics().get("searchCacheHits"));
+    }
+    
+    @Test
+    public void testSearchIndexIsPersistedAndReused() throws LibraryException {
+        addTestBook("B001");
+        addTestBook("B002");
+        DataPersistence dataPersistence = new DataPersistence(new FileManager(tempDir.toString()));
+        
+        // The first restart rebuilds the index from the documents and persists it
+        assertNull(dataPersistence.loadSearchIndex(dataPersistence.loadDocuments()));
+        new LibraryService(dataPersistence);
+        assertNotNull(dataPersistence.loadSearchIndex(dataPersistence.loadDocuments()));
+        
+        // Loans rewrite the documents file but leave the indexed fields unchanged
+        libraryService = new LibraryService(dataPersistence);
+        Loan loan = libraryService.createLoan("U001", "B001");
+        libraryService.returnDocument(loan.getLoanId());
+        assertNotNull(dataPersistence.loadSearchIndex(dataPersistence.loadDocuments()));
+        
+        // The next restart answers from the persisted segment
+        libraryService = new LibraryService(dataPersistence);
+        List<Document> ranked = libraryService.searchDocuments("author b002",
+            libraryService.getRankedSearchStrategy(10));
+        assertEquals("B002", ranked.get(0).getId());
+        assertEquals(1, libraryService.executeQuery("title:b001").getDocuments().size());
+        
+        // Changes after startup are merged with the segment
+        libraryService.removeDocument("B001");
+        addTestBook("B003");
+        assertTrue(libraryService.executeQuery("title:b001").getDocuments().isEmpty());
+        assertEquals("B003", libraryService.searchDocuments("b003",
+            libraryService.getRankedSearchStrategy(10)).get(0).getId());
+        
+        // The indexed documents changed, so the segment is now stale
+        assertNull(dataPersistence.loadSearchIndex(dataPersistence.loadDocuments()));
+    }
+    
+    @Test
+    public void testImportDocumentsSkipsDuplicatesAndInvalidRows() throws Exception {
+        addTestBook("B001");
+        Path csv = tempDir.resolve("acquisitions.csv");
+        Files.write(csv, Arrays.asList(
+            "type,id,title,author,publicationDate,extra1,extra2,extra3",
+            "BOOK,B010,\"Dune, Part One\",Frank Herbert,1965-08-01,0-306-40615-2,412,Science Fiction",
+            "MAGAZINE,M010,Monthly Review,Editors,2024-01-01,12,Review Press,Monthly",
+            "BOOK,B001,Existing Id,Someone,2020-01-01,978-1-4028-9462-6,100,Fiction",
+            "BOOK,B011,Same Isbn,Someone,2020-01-01,978-0-306-40615-7,100,Fiction",
+            "BOOK,B012,Bad Pages,Someone,2020-01-01,978-1-56619-909-4,-5,Fiction",
+            "BOOK,B013,Bad Date,Someone,yesterday,978-1-56619-909-4,100,Fiction",
+            "",
+            "BOOK,B010,Repeated Id,Someone,2020-01-01,978-1-4028-9462-6,100,Fiction"));
+        
+        ImportResult result = libraryService.importDocuments(csv);
+        
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(2, result.getInvalid());
+        assertEquals(Arrays.asList(4, 6, 7, 9), new ArrayList<>(result.getRejected().keySet()));
+        assertEquals(List.of(5), new ArrayList<>(result.getSharedIsbns().keySet()));
+        assertEquals(2, libraryService.findBooksByIsbn("0-306-40615-2").size());
+        assertEquals("Dune, Part One", libraryService.findDocumentById("B010").getTitle());
+        assertNotNull(libraryService.findDocumentById("M010"));
+        assertEquals("Same Isbn", libraryService.findDocumentById("B011").getTitle());
+        assertEquals(4, libraryService.getAllDocuments().size());
+        
+        // Imported documents are persisted
+        LibraryService reloaded = new LibraryService(new DataPersistence(new FileManager(tempDir.toString())));
+        assertNotNull(reloaded.findDocumentById("M010"));
+    }
+    
     // Helper method
     private void addTestBook(String id) throws LibraryException {
         DocumentCreationParams params = new DocumentCreationParams.Builder()
@@ -224,4 +590,33 @@ public class LibraryServiceTest {
         
         libraryService.addDocument(Document.DocumentType.BOOK, params);
     }
+    
+    /**
+     * Clock whose instant tests move directly
+     */
+    private static final class MutableClock extends Clock {
+        
+        private final ZoneId zone;
+        private volatile Instant instant;
+        
+        MutableClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MutableClock(instant, zone);
+        }
+        
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
 }
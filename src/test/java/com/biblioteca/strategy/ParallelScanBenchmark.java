@@ -0,0 +1,114 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.Book;
+import com.biblioteca.model.Document;
+import com.biblioteca.model.Magazine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark measuring where parallel scans start to beat sequential ones.
+ * For each catalog size it times the title search predicate through a
+ * sequential and a parallel ParallelScanExecutor and reports the median time
+ * per document. The smallest size from which the parallel scan is faster is
+ * the value to set through ParallelScanExecutor.PARALLEL_THRESHOLD_PROPERTY.
+ *
+ * Not a unit test: run it after test-compile with
+ * java -cp target/classes:target/test-classes com.biblioteca.strategy.ParallelScanBenchmark [maxSize] [runs]
+ */
+public final class ParallelScanBenchmark {
+    
+    private static final int DEFAULT_MAX_SIZE = 262144;
+    private static final int DEFAULT_RUNS = 15;
+    private static final String QUERY = "volume 7";
+    
+    private ParallelScanBenchmark() {
+    }
+    
+    public static void main(String[] args) {
+        int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_SIZE;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_RUNS;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int chunkSize = ParallelScanExecutor.DEFAULT_CHUNK_SIZE;
+        ParallelScanExecutor sequential = new ParallelScanExecutor(pool, Integer.MAX_VALUE, chunkSize);
+        ParallelScanExecutor parallel = new ParallelScanExecutor(pool, 0, chunkSize);
+        TitleSearchStrategy sequentialSearch = new TitleSearchStrategy(sequential);
+        TitleSearchStrategy parallelSearch = new TitleSearchStrategy(parallel);
+        
+        System.out.println("Parallelism: " + pool.getParallelism() + ", chunk size: " + chunkSize);
+        if (pool.getParallelism() <= 1) {
+            System.out.println("Only one worker: the executor always scans sequentially here");
+        }
+        System.out.printf("%10s %14s %14s %9s%n", "documents", "seq ns/doc", "par ns/doc", "speedup");
+        
+        List<Document> catalog = catalog(maxSize);
+        int threshold = -1;
+        for (int size = 1024; size <= maxSize; size *= 2) {
+            List<Document> documents = catalog.subList(0, size);
+            double sequentialNanos = medianNanos(sequentialSearch, documents, runs);
+            double parallelNanos = medianNanos(parallelSearch, documents, runs);
+            System.out.printf("%10d %14.1f %14.1f %8.2fx%n", size,
+                              sequentialNanos / size, parallelNanos / size, sequentialNanos / parallelNanos);
+            if (parallelNanos < sequentialNanos && threshold < 0) {
+                threshold = size;
+            } else if (parallelNanos >= sequentialNanos) {
+                threshold = -1;
+            }
+        }
+        if (pool.getParallelism() <= 1) {
+            System.out.println("Run on a multi-core machine to measure the threshold");
+        } else {
+            System.out.println(threshold > 0
+                ? "Parallel scans pay off from " + threshold + " documents: run with -D"
+                  + ParallelScanExecutor.PARALLEL_THRESHOLD_PROPERTY + "=" + threshold
+                : "Parallel scans did not pay off up to " + maxSize + " documents");
+        }
+    }
+    
+    /**
+     * Median wall time of a search after warming it up
+     */
+    private static double medianNanos(SearchStrategy strategy, List<Document> documents, int runs) {
+        int sink = 0;
+        for (int i = 0; i < runs; i++) {
+            sink += strategy.search(documents, QUERY).size();
+        }
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            sink += strategy.search(documents, QUERY).size();
+            times[i] = System.nanoTime() - start;
+        }
+        if (sink < 0) {
+            System.out.println(sink);
+        }
+        Arrays.sort(times);
+        return times[runs / 2];
+    }
+    
+    /**
+     * Synthetic catalog of mixed books and magazines with varied titles
+     */
+    private static List<Document> catalog(int size) {
+        Random random = new Random(42);
+        String[] words = {"history", "garden", "data", "volume", "modern", "river", "java", "atlas", "poems", "guide"};
+        List<Document> documents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                + " " + random.nextInt(100);
+            LocalDate date = LocalDate.of(1950 + random.nextInt(75), 1 + random.nextInt(12), 1);
+            if (i % 5 == 0) {
+                documents.add(new Magazine("M" + i, title, "Editor " + (i % 500), date, i % 52, "Press", "Weekly"));
+            } else {
+                documents.add(new Book("B" + i, title, "Author " + (i % 2000), date, "ISBN" + i, 100 + i % 900,
+                                       "Genre " + (i % 20)));
+            }
+        }
+        return documents;
+    }
+}
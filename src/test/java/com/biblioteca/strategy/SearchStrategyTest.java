@@ -1,13 +1,33 @@
 package com.biblioteca.strategy;
 
+import com.biblioteca.index.DateRangeIndex;
+import com.biblioteca.index.FuzzyIndex;
+import com.biblioteca.index.InvertedIndex;
+import com.biblioteca.index.IsbnIndex;
+import com.biblioteca.index.PrefixTrie;
 import com.biblioteca.model.Book;
 import com.biblioteca.model.Document;
+import com.biblioteca.util.EditDistance;
+import com.biblioteca.util.TextNormalizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -121,6 +141,30 @@ public class SearchStrategyTest {
         assertEquals(results2.size(), results3.size());
     }
     
+    @Test
+    public void testSearchIgnoresAccentsAndExtraWhitespace() {
+        Document accented = new Book("B005", "Cien  Años de Soledad", "Gabriel García Márquez",
+                                     LocalDate.now(), "ISBN5", 417, "Fiction");
+        documents.add(accented);
+        
+        assertEquals("cien anos de soledad", accented.getSearchTitle());
+        assertEquals(List.of(accented), new TitleSearchStrategy().search(documents, "cien años"));
+        assertEquals(List.of(accented), new AuthorSearchStrategy().search(documents, "GARCIA  marquez"));
+        assertEquals(List.of(accented), new GlobalSearchStrategy().search(documents, "b005"));
+    }
+    
+    @Test
+    public void testSearchKeysFollowSetters() {
+        Document book = documents.get(0);
+        book.setTitle("Kotlin in Action");
+        book.setAuthor("Dmitry Jemerov");
+        
+        TitleSearchStrategy titleSearch = new TitleSearchStrategy();
+        assertTrue(titleSearch.search(documents, "java").isEmpty());
+        assertEquals(List.of(book), titleSearch.search(documents, "kotlin"));
+        assertEquals(List.of(book), new AuthorSearchStrategy().search(documents, "jemerov"));
+    }
+    
     @Test
     public void testSwitchingStrategies() {
         // Start with title search
@@ -145,4 +189,473 @@ public class SearchStrategyTest {
         assertEquals(1, results.size());
         assertEquals("Python Basics", results.get(0).getTitle());
     }
+    
+    @Test
+    public void testAutocompleteRanksByFrequency() {
+        AutocompleteService autocomplete = new AutocompleteService();
+        documents.forEach(autocomplete::add);
+        
+        List<String> authors = autocomplete.suggestAuthors("J", 5);
+        assertEquals(Arrays.asList("John Doe", "Jane Smith"), authors);
+        
+        assertEquals(Arrays.asList("Java Programming"), autocomplete.suggestTitles("  JAVA ", 5));
+        assertEquals(1, autocomplete.suggest("j", 1).size());
+        assertTrue(autocomplete.suggest("zzz", 5).isEmpty());
+    }
+    
+    @Test
+    public void testAutocompleteFollowsRemoval() {
+        AutocompleteService autocomplete = new AutocompleteService();
+        documents.forEach(autocomplete::add);
+        
+        // Both authors are now tied on one document each
+        autocomplete.remove(documents.get(0));
+        assertEquals(Set.of("John Doe", "Jane Smith"), new HashSet<>(autocomplete.suggestAuthors("j", 5)));
+        assertTrue(autocomplete.suggestTitles("java", 5).isEmpty());
+        
+        autocomplete.remove(documents.get(2));
+        assertEquals(Arrays.asList("Jane Smith"), autocomplete.suggestAuthors("j", 5));
+    }
+    
+    @Test
+    public void testPrefixTrieCollapsesChainsAndMatchesBruteForce() {
+        PrefixTrie trie = new PrefixTrie();
+        Random random = new Random(3);
+        Map<String, Integer> weights = new HashMap<>();
+        String[] stems = {"", "data", "data structures", "database", "dat", "java", "javascript", "j"};
+        for (int i = 0; i < 400; i++) {
+            String term = stems[random.nextInt(stems.length)] + (random.nextBoolean() ? "" : " " + random.nextInt(5));
+            if (random.nextInt(3) == 0 && weights.containsKey(term)) {
+                trie.remove(term, term.toUpperCase(Locale.ROOT));
+                weights.computeIfPresent(term, (t, w) -> w > 1 ? w - 1 : null);
+            } else {
+                trie.add(term, term.toUpperCase(Locale.ROOT));
+                weights.merge(term, 1, Integer::sum);
+            }
+            assertEquals(weights.size(), trie.size());
+            for (String prefix : new String[] {"", "d", "dat", "data ", "data s", "ja", "javas", "x"}) {
+                Set<String> expected = new HashSet<>();
+                int best = 0;
+                for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                    if (entry.getKey().startsWith(prefix) && entry.getValue() >= best) {
+                        if (entry.getValue() > best) {
+                            expected.clear();
+                            best = entry.getValue();
+                        }
+                        expected.add(entry.getKey().toUpperCase(Locale.ROOT));
+                    }
+                }
+                List<String> top = trie.complete(prefix, 1);
+                assertEquals(expected.isEmpty() ? 0 : 1, top.size(), prefix);
+                assertTrue(expected.isEmpty() || expected.contains(top.get(0)), prefix);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            assertEquals((int) entry.getValue(), trie.weight(entry.getKey()));
+        }
+        assertEquals(0, trie.weight("data struct"));
+    }
+    
+    @Test
+    public void testFuzzySearchToleratesTypos() {
+        searchContext.setStrategy(new FuzzySearchStrategy());
+        assertEquals("Fuzzy Search", searchContext.getCurrentStrategyName());
+        
+        List<Document> results = searchContext.executeSearch(documents, "jhon doe");
+        assertEquals(2, results.size());
+        
+        results = searchContext.executeSearch(documents, "Pyhton");
+        assertEquals(1, results.size());
+        assertEquals("B002", results.get(0).getId());
+        
+        results = searchContext.executeSearch(documents, "johnsno");
+        assertEquals(1, results.size());
+        assertEquals("B004", results.get(0).getId());
+        
+        results = searchContext.executeSearch(documents, "xyzzy");
+        assertEquals(0, results.size());
+    }
+    
+    @Test
+    public void testFuzzySearchRanksExactMatchesFirst() {
+        FuzzyIndex index = new FuzzyIndex();
+        documents.forEach(index::add);
+        Document jon = new Book("B005", "Jon's Book", "Jon Doe", LocalDate.now(), "ISBN5", 100, "Tech");
+        index.add(jon);
+        searchContext.setStrategy(new FuzzySearchStrategy(index));
+        
+        List<Document> results = searchContext.executeSearch(documents, "jon");
+        assertEquals(jon, results.get(0));
+        
+        index.remove(jon);
+        assertFalse(searchContext.executeSearch(documents, "jon").contains(jon));
+    }
+    
+    @Test
+    public void testFuzzyIndexCompactsDeadTerms() {
+        FuzzyIndex index = new FuzzyIndex();
+        documents.forEach(index::add);
+        int vocabulary = index.termCount();
+        List<Document> churn = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            churn.add(new Book("C" + i, "Volume" + i, "Writer" + i, LocalDate.now(), "ISBN", 100, "Tech"));
+        }
+        churn.forEach(index::add);
+        churn.forEach(index::remove);
+        
+        assertTrue(index.termCount() <= 2 * vocabulary);
+        assertTrue(index.search("volume7").isEmpty());
+        assertEquals(2, index.search("jhon doe").size());
+    }
+    
+    @Test
+    public void testEditDistance() {
+        assertEquals(0, EditDistance.levenshtein("doe", "doe"));
+        assertEquals(2, EditDistance.levenshtein("jhon", "john"));
+        assertEquals(3, EditDistance.levenshtein("kitten", "sitting"));
+        assertEquals(2, EditDistance.levenshtein("kitten", "sitting", 1));
+    }
+    
+    @Test
+    public void testRankedSearchOrdersByRelevance() {
+        documents.add(new Book("B005", "Doe Family History", "Alice Brown",
+                              LocalDate.now(), "ISBN5", 200, "History"));
+        searchContext.setStrategy(new RankedSearchStrategy());
+        assertEquals("Ranked Search", searchContext.getCurrentStrategyName());
+        
+        // Title matches are boosted above author matches
+        List<Document> results = searchContext.executeSearch(documents, "doe");
+        assertEquals(3, results.size());
+        assertEquals("B005", results.get(0).getId());
+        
+        // Documents matching more query terms rank higher
+        results = searchContext.executeSearch(documents, "john programming");
+        assertEquals("B001", results.get(0).getId());
+    }
+    
+    @Test
+    public void testRankedSearchKeepsTopK() {
+        InvertedIndex index = new InvertedIndex();
+        documents.forEach(index::add);
+        searchContext.setStrategy(new RankedSearchStrategy(index, 1));
+        
+        List<Document> results = searchContext.executeSearch(documents, "john");
+        assertEquals(1, results.size());
+        
+        results = searchContext.executeSearch(documents, "b003");
+        assertEquals("B003", results.get(0).getId());
+    }
+    
+    @Test
+    public void testRankedSearchRejectsNonPositiveLimit() {
+        InvertedIndex index = new InvertedIndex();
+        assertThrows(IllegalArgumentException.class, () -> new RankedSearchStrategy(index, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RankedSearchStrategy(index, -1));
+    }
+    
+    @Test
+    public void testSearchCacheHitsAndVersionInvalidation() {
+        SearchResultCache cache = new SearchResultCache(10, null);
+        searchContext.setCache(cache);
+        
+        List<Document> first = searchContext.executeSearch(documents, "java", 1);
+        List<Document> second = searchContext.executeSearch(documents, " java ", 1);
+        assertEquals(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        
+        // A new catalog version must not be served stale results
+        documents.add(new Book("B005", "More Java", "Ann Lee", LocalDate.now(), "ISBN5", 100, "Tech"));
+        assertEquals(2, searchContext.executeSearch(documents, "java", 2).size());
+        assertEquals(2, cache.getMisses());
+        
+        // Different strategies do not share entries
+        searchContext.setStrategy(new AuthorSearchStrategy());
+        assertEquals(0, searchContext.executeSearch(documents, "java", 2).size());
+        assertEquals(3, cache.getMisses());
+    }
+    
+    @Test
+    public void testSearchCacheEvictsLeastRecentlyUsed() {
+        SearchResultCache cache = new SearchResultCache(2, null);
+        searchContext.setCache(cache);
+        
+        searchContext.executeSearch(documents, "java", 1);
+        searchContext.executeSearch(documents, "python", 1);
+        searchContext.executeSearch(documents, "java", 1);
+        searchContext.executeSearch(documents, "data", 1);
+        
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        
+        searchContext.executeSearch(documents, "java", 1);
+        assertEquals(2, cache.getHits());
+        searchContext.executeSearch(documents, "python", 1);
+        assertEquals(2, cache.getHits());
+    }
+    
+    @Test
+    public void testSearchCacheExpiresEntries() throws InterruptedException {
+        SearchResultCache cache = new SearchResultCache(10, Duration.ofMillis(1));
+        searchContext.setCache(cache);
+        
+        searchContext.executeSearch(documents, "java", 1);
+        Thread.sleep(5);
+        searchContext.executeSearch(documents, "java", 1);
+        
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+    
+    @Test
+    public void testParallelScanPreservesOrder() {
+        List<Document> catalog = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String title = (i % 3 == 0 ? "Java Volume " : "Other Volume ") + i;
+            catalog.add(new Book("P" + i, title, "Author " + (i % 7), LocalDate.now(), "ISBN" + i, 100, "Tech"));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelScanExecutor executor = new ParallelScanExecutor(pool, 100, 64);
+            
+            List<Document> sequential = new TitleSearchStrategy(
+                new ParallelScanExecutor(pool, Integer.MAX_VALUE, 64)).search(catalog, "java");
+            List<Document> parallel = new TitleSearchStrategy(executor).search(catalog, "java");
+            assertEquals(334, parallel.size());
+            assertEquals(sequential, parallel);
+            
+            assertEquals(new AuthorSearchStrategy().search(catalog, "author 3"),
+                         new AuthorSearchStrategy(executor).search(catalog, "author 3"));
+            assertEquals(new GlobalSearchStrategy().search(catalog, "p99"),
+                         new GlobalSearchStrategy(executor).search(catalog, "p99"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testScanStrategiesShareOnePredicateForEveryAccessPath() {
+        SearchStrategy isbn = new ScanSearchStrategy(new ParallelScanExecutor(ForkJoinPool.commonPool(), 0, 1)) {
+            @Override
+            protected Predicate<Document> matcher(String normalizedQuery) {
+                return doc -> TextNormalizer.normalize(((Book) doc).getIsbn()).equals(normalizedQuery);
+            }
+            
+            @Override
+            public String getStrategyName() {
+                return "ISBN Scan";
+            }
+        };
+        
+        List<Document> found = isbn.search(documents, " ISBN3 ");
+        assertEquals(1, found.size());
+        assertEquals(found, isbn.searchStream(documents, "isbn3").collect(Collectors.toList()));
+        assertTrue(isbn.documentMatcher("Isbn3").test(found.get(0)));
+        assertTrue(isbn.search(documents, "  ").isEmpty());
+        assertFalse(isbn.documentMatcher(null).test(found.get(0)));
+        
+        assertEquals(Integer.getInteger(ParallelScanExecutor.PARALLEL_THRESHOLD_PROPERTY,
+                                        ParallelScanExecutor.DEFAULT_PARALLEL_THRESHOLD),
+                     ParallelScanExecutor.getDefault().getParallelThreshold());
+    }
+    
+    @Test
+    public void testSearchPagesFollowContinuationTokens() {
+        for (int i = 5; i < 10; i++) {
+            documents.add(new Book("B00" + i, "Java Volume " + i, "Ann Lee", LocalDate.now(), "ISBN" + i, 100, "Tech"));
+        }
+        List<Document> all = searchContext.executeSearch(documents, "java");
+        assertEquals(6, all.size());
+        
+        SearchPage first = searchContext.executeSearchPage(documents, "java", 7, 0, 4);
+        assertEquals(all.subList(0, 4), first.getDocuments());
+        assertTrue(first.hasMore());
+        
+        SearchPage second = searchContext.executeSearchPage(documents, "java", 7, first.getNextToken(), 4);
+        assertEquals(4, second.getOffset());
+        assertEquals(all.subList(4, 6), second.getDocuments());
+        assertFalse(second.hasMore());
+        
+        // Tokens do not carry over to other queries or catalog versions
+        assertThrows(IllegalArgumentException.class, () ->
+            searchContext.executeSearchPage(documents, "python", 7, first.getNextToken(), 4));
+        assertThrows(IllegalArgumentException.class, () ->
+            searchContext.executeSearchPage(documents, "java", 8, first.getNextToken(), 4));
+        assertThrows(IllegalArgumentException.class, () ->
+            searchContext.executeSearchPage(documents, "java", 7, "not-a-token", 4));
+        
+        // Result-ordered strategies page through their results instead of the catalogue
+        searchContext.setStrategy(new DateRangeSearchStrategy());
+        SearchPage newest = searchContext.executeSearchPage(documents, "latest 3", 7, 0, 2);
+        SearchPage oldest = searchContext.executeSearchPage(documents, "latest 3", 7, newest.getNextToken(), 2);
+        assertEquals(searchContext.executeSearch(documents, "latest 3").subList(2, 3), oldest.getDocuments());
+    }
+    
+    @Test
+    public void testCachedPagesSurviveEviction() {
+        for (int i = 5; i < 10; i++) {
+            documents.add(new Book("B00" + i, "Java Volume " + i, "Ann Lee", LocalDate.now(), "ISBN" + i, 100, "Tech"));
+        }
+        List<Document> all = searchContext.executeSearch(documents, "java");
+        SearchResultCache cache = new SearchResultCache(1, null);
+        searchContext.setCache(cache);
+        
+        SearchPage first = searchContext.executeSearchPage(documents, "java", 7, 0, 4);
+        SearchPage cached = searchContext.executeSearchPage(documents, "java", 7, first.getNextToken(), 4);
+        assertEquals(1, cache.getHits());
+        assertEquals(all.subList(4, 6), cached.getDocuments());
+        
+        // Once the entry is evicted the token still leads to the same page
+        searchContext.executeSearch(documents, "python", 7);
+        SearchPage rescanned = searchContext.executeSearchPage(documents, "java", 7, first.getNextToken(), 4);
+        assertEquals(cached.getDocuments(), rescanned.getDocuments());
+        assertEquals(4, rescanned.getOffset());
+        assertFalse(rescanned.hasMore());
+    }
+    
+    @Test
+    public void testResultOrderedStrategiesSearchOncePerQuery() {
+        int[] searches = new int[1];
+        SearchStrategy reversed = new SearchStrategy() {
+            @Override
+            public List<Document> search(List<Document> documents, String query) {
+                searches[0]++;
+                List<Document> results = new ArrayList<>(documents);
+                Collections.reverse(results);
+                return results;
+            }
+            
+            @Override
+            public String getStrategyName() {
+                return "Reversed";
+            }
+        };
+        searchContext.setStrategy(reversed);
+        List<Document> expected = reversed.search(documents, "any");
+        searches[0] = 0;
+        
+        List<Document> read = new ArrayList<>();
+        SearchPage page = searchContext.executeSearchPage(documents, "any", 1, 0, 1);
+        read.addAll(page.getDocuments());
+        while (page.hasMore()) {
+            page = searchContext.executeSearchPage(documents, "any", 1, page.getNextToken(), 1);
+            read.addAll(page.getDocuments());
+        }
+        
+        assertEquals(expected, read);
+        assertEquals(1, searches[0]);
+        
+        // A new catalog version is searched again
+        searchContext.executeSearchPage(documents, "any", 2, 0, 1);
+        assertEquals(2, searches[0]);
+    }
+    
+    @Test
+    public void testContinuationTokensResumeWhereThePageEnded() {
+        List<Integer> visited = new ArrayList<>();
+        List<Document> tracked = new AbstractList<Document>() {
+            @Override
+            public Document get(int index) {
+                visited.add(index);
+                return documents.get(index);
+            }
+            
+            @Override
+            public int size() {
+                return documents.size();
+            }
+        };
+        
+        searchContext.setStrategy(new AuthorSearchStrategy());
+        SearchPage first = searchContext.executeSearchPage(tracked, "john doe", 1, 0, 1);
+        visited.clear();
+        SearchPage second = searchContext.executeSearchPage(tracked, "john doe", 1, first.getNextToken(), 1);
+        
+        assertEquals(searchContext.executeSearch(documents, "john doe").subList(1, 2), second.getDocuments());
+        assertEquals(1, second.getOffset());
+        assertFalse(visited.contains(0));
+        assertFalse(visited.contains(1));
+    }
+    
+    @Test
+    public void testStreamingSearchIsLazy() {
+        List<Document> visited = new ArrayList<>();
+        List<Document> tracked = new AbstractList<Document>() {
+            @Override
+            public Document get(int index) {
+                visited.add(documents.get(index));
+                return documents.get(index);
+            }
+            
+            @Override
+            public int size() {
+                return documents.size();
+            }
+        };
+        
+        // One match on the first document: the page should not scan the whole catalog
+        searchContext.setStrategy(new AuthorSearchStrategy());
+        SearchPage page = searchContext.executeSearchPage(tracked, "john doe", 1, 0, 1);
+        assertEquals(List.of(documents.get(0)), page.getDocuments());
+        assertTrue(page.hasMore());
+        assertEquals(documents.subList(0, 3), visited);
+        
+        List<Document> streamed = new ArrayList<>();
+        searchContext.executeSearch(documents, "john doe", streamed::add);
+        assertEquals(searchContext.executeSearch(documents, "john doe"), streamed);
+    }
+    
+    @Test
+    public void testDateRangeSearch() {
+        DateRangeIndex index = new DateRangeIndex();
+        Document old = new Book("D1", "Old", "A", LocalDate.of(1999, 5, 1), "I1", 10, "G");
+        Document mid = new Book("D2", "Mid", "B", LocalDate.of(2012, 3, 15), "I2", 10, "G");
+        Document recent = new Book("D3", "Recent", "C", LocalDate.of(2020, 1, 1), "I3", 10, "G");
+        Document newest = new Book("D4", "Newest", "D", LocalDate.of(2023, 12, 31), "I4", 10, "G");
+        List<Document> dated = Arrays.asList(recent, old, newest, mid);
+        dated.forEach(index::add);
+        
+        DateRangeSearchStrategy strategy = new DateRangeSearchStrategy(index);
+        assertEquals(Arrays.asList(mid, recent), strategy.search(dated, "2010..2020"));
+        assertEquals(List.of(old), strategy.search(dated, "..2000"));
+        assertEquals(Arrays.asList(recent, newest), strategy.search(dated, "2020.."));
+        assertEquals(List.of(mid), strategy.search(dated, "2012-03"));
+        assertEquals(List.of(newest), strategy.search(dated, "2023-12-31"));
+        assertEquals(Arrays.asList(newest, recent), strategy.search(dated, "latest 2"));
+        assertTrue(strategy.search(dated, "not a date").isEmpty());
+        assertTrue(strategy.search(dated, "2015..2010").isEmpty());
+        assertTrue(strategy.search(dated, "2012-03-20..2012-03-10").isEmpty());
+        
+        // The ad-hoc strategy answers the same way from the given list
+        assertEquals(Arrays.asList(mid, recent), new DateRangeSearchStrategy().search(dated, "2010..2020"));
+        
+        index.remove(recent);
+        assertEquals(List.of(mid), strategy.search(dated, "2010..2020"));
+        assertEquals(3, index.size());
+    }
+    
+    @Test
+    public void testIsbnSearchMatchesAnyForm() {
+        Document book = new Book("B005", "Effective Java", "Joshua Bloch", LocalDate.now(),
+                                 "0-321-35668-3", 346, "Tech");
+        documents.add(book);
+        IsbnIndex index = new IsbnIndex();
+        documents.forEach(index::add);
+        
+        assertEquals("9780321356680", IsbnIndex.normalize("0-321-35668-3"));
+        assertEquals(book, index.find("978-0-321-35668-0"));
+        assertEquals(book, index.find("0321356683"));
+        assertTrue(index.contains("978 0321 356680"));
+        assertNull(index.find("9780000000002"));
+        
+        // Values that are not valid ISBNs are still found exactly
+        assertEquals(documents.get(0), index.find("isbn1"));
+        
+        IsbnSearchStrategy indexed = new IsbnSearchStrategy(index);
+        assertEquals(List.of(book), indexed.search(documents, "978-0321356680"));
+        assertEquals(List.of(book), new IsbnSearchStrategy().search(documents, "0 321 35668 3"));
+        
+        index.remove(book);
+        assertTrue(indexed.search(documents, "0321356683").isEmpty());
+    }
 }
@@ -0,0 +1,100 @@
+package com.biblioteca.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InputValidator.
+ * The single-pass validators are checked against the regexes they replaced
+ * on randomly generated inputs.
+ */
+public class InputValidatorTest {
+    
+    private static final Pattern ID_PATTERN = Pattern.compile("^[A-Za-z0-9_-]{1,20}$");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^[0-9+\\-\\s()]{7,20}$");
+    private static final Pattern ALPHANUMERIC_PATTERN = Pattern.compile("^[A-Za-z0-9\\s.,!?'\"\\-]{1,200}$");
+    
+    private static final int SAMPLES = 20000;
+    
+    // Characters near every class boundary, plus a few outside ASCII
+    private static final String ALPHABET =
+        "aAzZmM09_-+.@()!?,'\"<>/&;# \t\n\u000B\f\r\u0000\u001F\u007F\u0085\u00A0\u00E9\u2028\uD83D\uDE00`[]{}^~";
+    
+    @Test
+    public void testValidatorsMatchRegexes() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            String input = randomString(random, ALPHABET, random.nextInt(25));
+            assertEquals(ID_PATTERN.matcher(input).matches(), InputValidator.isValidId(input), input);
+            assertEquals(PHONE_PATTERN.matcher(input).matches(), InputValidator.isValidPhone(input), input);
+            assertEquals(EMAIL_PATTERN.matcher(input).matches(), InputValidator.isValidEmail(input), input);
+            assertEquals(regexIsValidString(input), InputValidator.isValidString(input), input);
+            assertEquals(input.matches("^[A-Za-z0-9]+$"), InputValidator.isAlphanumeric(input), input);
+        }
+    }
+    
+    @Test
+    public void testEmailValidatorMatchesRegexOnEmailLikeInput() {
+        Random random = new Random(7);
+        String alphabet = "ab9+_.-@@..xyZ";
+        for (int i = 0; i < SAMPLES; i++) {
+            String input = randomString(random, alphabet, random.nextInt(10)) + "@"
+                + randomString(random, alphabet, random.nextInt(8)) + "."
+                + randomString(random, "comX.1", random.nextInt(5));
+            assertEquals(EMAIL_PATTERN.matcher(input).matches(), InputValidator.isValidEmail(input), input);
+        }
+    }
+    
+    @Test
+    public void testStringLengthLimits() {
+        Random random = new Random(3);
+        for (int length = 195; length <= 205; length++) {
+            String input = randomString(random, "ab ,.\t", length);
+            assertEquals(regexIsValidString(input), InputValidator.isValidString(input), input);
+        }
+        assertFalse(InputValidator.isValidString(null));
+        assertFalse(InputValidator.isValidString(" \t "));
+        assertFalse(InputValidator.isValidId(null));
+        assertFalse(InputValidator.isValidEmail(null));
+        assertFalse(InputValidator.isValidPhone(null));
+        assertFalse(InputValidator.isAlphanumeric(null));
+    }
+    
+    @Test
+    public void testSanitizeMatchesReplaceChain() {
+        Random random = new Random(11);
+        for (int i = 0; i < SAMPLES; i++) {
+            String input = randomString(random, ALPHABET, random.nextInt(25));
+            assertEquals(regexSanitize(input), InputValidator.sanitize(input), input);
+        }
+        assertEquals("", InputValidator.sanitize(null));
+        assertEquals("a &lt;b&gt; &#x2F; &quot;c&quot; &#x27;d&#x27;", InputValidator.sanitize(" a <b> / \"c\" 'd'\u0001 "));
+    }
+    
+    private static boolean regexIsValidString(String input) {
+        return input != null && !input.trim().isEmpty() && ALPHANUMERIC_PATTERN.matcher(input).matches();
+    }
+    
+    private static String regexSanitize(String input) {
+        String sanitized = input.trim();
+        sanitized = sanitized.replaceAll("[\\p{Cntrl}]", "");
+        return sanitized.replace("<", "&lt;")
+                        .replace(">", "&gt;")
+                        .replace("\"", "&quot;")
+                        .replace("'", "&#x27;")
+                        .replace("/", "&#x2F;");
+    }
+    
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}